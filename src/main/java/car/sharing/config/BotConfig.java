@@ -9,9 +9,25 @@ import org.springframework.context.annotation.PropertySource;
 @Data
 @PropertySource("application.properties")
 public class BotConfig {
+    public static final String WEBHOOK_MODE = "webhook";
+    public static final String WEBHOOK_PATH = "/telegram/webhook";
+
     @Value("${telegram.bot.name}")
     private String botName;
 
     @Value("${telegram.bot.token}")
     private String botToken;
+
+    @Value("${telegram.bot.mode:polling}")
+    private String mode;
+
+    @Value("${telegram.bot.webhook-url:}")
+    private String webhookUrl;
+
+    @Value("${telegram.bot.webhook-secret:}")
+    private String webhookSecret;
+
+    public boolean isWebhookMode() {
+        return WEBHOOK_MODE.equalsIgnoreCase(mode);
+    }
 }
@@ -0,0 +1,63 @@
+package car.sharing.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@EnableCaching
+@Configuration
+public class CacheConfig {
+    public static final String PRINCIPALS_CACHE = "principals";
+    public static final String CARS_CACHE = "cars";
+    public static final String CAR_PAGES_CACHE = "carPages";
+    public static final String CAR_SEARCHES_CACHE = "carSearches";
+    public static final String CAR_SEARCH_KEY_GENERATOR = "carSearchKeyGenerator";
+
+    @Value("${cache.principals.max-size:10000}")
+    private long principalsMaxSize;
+    @Value("${cache.principals.ttl:5m}")
+    private Duration principalsTtl;
+    @Value("${cache.cars.max-size:10000}")
+    private long carsMaxSize;
+    @Value("${cache.cars.ttl:10m}")
+    private Duration carsTtl;
+    @Value("${cache.car-searches.max-size:1000}")
+    private long carSearchesMaxSize;
+    @Value("${cache.car-searches.ttl:1m}")
+    private Duration carSearchesTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(PRINCIPALS_CACHE,
+                buildCache(principalsMaxSize, principalsTtl));
+        cacheManager.registerCustomCache(CARS_CACHE, buildCache(carsMaxSize, carsTtl));
+        cacheManager.registerCustomCache(CAR_PAGES_CACHE,
+                buildCache(carSearchesMaxSize, carSearchesTtl));
+        cacheManager.registerCustomCache(CAR_SEARCHES_CACHE,
+                buildCache(carSearchesMaxSize, carSearchesTtl));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    @Bean(CAR_SEARCH_KEY_GENERATOR)
+    public KeyGenerator carSearchKeyGenerator() {
+        return new CarSearchKeyGenerator();
+    }
+
+    private Cache<Object, Object> buildCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package car.sharing.config;
+
+import car.sharing.dto.car.CarSearchParametersDto;
+import car.sharing.repository.SpecificationParameters;
+import java.lang.reflect.Method;
+import java.util.List;
+import org.springframework.cache.interceptor.KeyGenerator;
+
+public class CarSearchKeyGenerator implements KeyGenerator {
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        CarSearchParametersDto searchParameters = (CarSearchParametersDto) params[0];
+        return new CarSearchKey(SpecificationParameters.normalize(searchParameters.brands()),
+                SpecificationParameters.normalize(searchParameters.carFrames()));
+    }
+
+    private record CarSearchKey(List<String> brands, List<String> carFrames) {
+    }
+}
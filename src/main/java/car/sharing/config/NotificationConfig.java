@@ -0,0 +1,39 @@
+package car.sharing.config;
+
+import car.sharing.repository.notification.FailedNotificationRepository;
+import car.sharing.telegram.NotificationDispatcher;
+import car.sharing.telegram.TelegramBot;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class NotificationConfig {
+    @Value("${notification.workers:4}")
+    private int workers;
+    @Value("${notification.queue-capacity:10000}")
+    private int queueCapacity;
+    @Value("${notification.max-attempts:5}")
+    private int maxAttempts;
+    @Value("${notification.initial-backoff:1s}")
+    private Duration initialBackoff;
+    @Value("${notification.max-backoff:1m}")
+    private Duration maxBackoff;
+    @Value("${notification.global-messages-per-second:30}")
+    private int globalMessagesPerSecond;
+    @Value("${notification.per-chat-interval:1s}")
+    private Duration perChatInterval;
+
+    @Bean
+    public NotificationDispatcher notificationDispatcher(
+            TelegramBot telegramBot,
+            FailedNotificationRepository failedNotificationRepository,
+            MeterRegistry meterRegistry) {
+        return new NotificationDispatcher(telegramBot, failedNotificationRepository,
+                meterRegistry, new NotificationDispatcher.Settings(workers, queueCapacity,
+                        maxAttempts, initialBackoff, maxBackoff, globalMessagesPerSecond,
+                        perChatInterval));
+    }
+}
@@ -0,0 +1,55 @@
+package car.sharing.config;
+
+import car.sharing.security.AdaptiveBCryptPasswordEncoder;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Slf4j
+@Configuration
+public class PasswordHashingConfig {
+    public static final String PASSWORD_HASHING_EXECUTOR = "passwordHashingExecutor";
+    private static final String THREAD_NAME_PREFIX = "password-hashing-";
+
+    @Value("${security.password.strength:10}")
+    private int strength;
+    @Value("${security.password.target-hash-latency:250ms}")
+    private Duration targetHashLatency;
+    @Value("${security.password.min-strength:10}")
+    private int minStrength;
+    @Value("${security.password.max-strength:14}")
+    private int maxStrength;
+    @Value("${security.password.executor.pool-size:0}")
+    private int poolSize;
+    @Value("${security.password.executor.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        // the cost is pinned for the whole cluster, calibration on this node is only a hint
+        int suggested = AdaptiveBCryptPasswordEncoder.calibrate(
+                targetHashLatency, minStrength, maxStrength);
+        if (suggested != strength) {
+            log.info("BCrypt strength {} is configured, this node suggests {} for a target "
+                    + "latency of {}", strength, suggested, targetHashLatency);
+        }
+        return new AdaptiveBCryptPasswordEncoder(strength);
+    }
+
+    @Bean(PASSWORD_HASHING_EXECUTOR)
+    public Executor passwordHashingExecutor() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        executor.initialize();
+        return executor;
+    }
+}
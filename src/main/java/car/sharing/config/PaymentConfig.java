@@ -0,0 +1,32 @@
+package car.sharing.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class PaymentConfig {
+    public static final String PAYMENT_PERSISTENCE_EXECUTOR = "paymentPersistenceExecutor";
+    private static final String THREAD_NAME_PREFIX = "payment-persistence-";
+
+    @Value("${payment.persistence.executor.pool-size:8}")
+    private int poolSize;
+    @Value("${payment.persistence.executor.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Bean(PAYMENT_PERSISTENCE_EXECUTOR)
+    public Executor paymentPersistenceExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        // a provider callback must never be dropped, so a full queue slows the caller down
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,51 @@
+package car.sharing.config;
+
+import car.sharing.model.Car;
+import car.sharing.service.pricing.Tariff;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PricingConfig {
+    private static final String ENTRY_SEPARATOR = ":";
+
+    @Value("${pricing.weekend-rate-percent:100}")
+    private int weekendRatePercent;
+    @Value("${pricing.long-rental-discounts:}")
+    private String[] longRentalDiscounts;
+    @Value("${pricing.fine-multiplier-percent:150}")
+    private int fineMultiplierPercent;
+    @Value("${pricing.fine-multiplier-percents-by-frame:}")
+    private String[] fineMultiplierPercentsByFrame;
+
+    @Bean
+    public Tariff tariff() {
+        List<Tariff.LongRentalDiscount> discounts = Arrays.stream(longRentalDiscounts)
+                .map(entry -> splitEntry(entry, "pricing.long-rental-discounts"))
+                .map(entry -> new Tariff.LongRentalDiscount(Integer.parseInt(entry[0]),
+                        Integer.parseInt(entry[1])))
+                .toList();
+        Map<Car.CarFrame, Integer> fineMultipliers = new EnumMap<>(Car.CarFrame.class);
+        for (String entry : fineMultiplierPercentsByFrame) {
+            String[] frameAndPercent = splitEntry(entry,
+                    "pricing.fine-multiplier-percents-by-frame");
+            fineMultipliers.put(Car.CarFrame.valueOf(frameAndPercent[0]),
+                    Integer.parseInt(frameAndPercent[1]));
+        }
+        return new Tariff(weekendRatePercent, discounts, fineMultiplierPercent, fineMultipliers);
+    }
+
+    private String[] splitEntry(String entry, String property) {
+        String[] parts = entry.trim().split(ENTRY_SEPARATOR);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected key" + ENTRY_SEPARATOR
+                    + "percent in " + property + ", but was: " + entry);
+        }
+        return new String[] {parts[0].trim(), parts[1].trim()};
+    }
+}
@@ -0,0 +1,25 @@
+package car.sharing.config;
+
+import car.sharing.model.Car;
+import car.sharing.model.Rental;
+import car.sharing.repository.MapSpecificationProviderManager;
+import car.sharing.repository.SpecificationProvider;
+import car.sharing.repository.SpecificationProviderManager;
+import java.util.List;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SpecificationConfig {
+    @Bean
+    public SpecificationProviderManager<Car> carSpecificationProviderManager(
+            List<SpecificationProvider<Car>> carSpecificationProviders) {
+        return new MapSpecificationProviderManager<>(carSpecificationProviders);
+    }
+
+    @Bean
+    public SpecificationProviderManager<Rental> rentalSpecificationProviderManager(
+            List<SpecificationProvider<Rental>> rentalSpecificationProviders) {
+        return new MapSpecificationProviderManager<>(rentalSpecificationProviders);
+    }
+}
@@ -0,0 +1,67 @@
+package car.sharing.config;
+
+import car.sharing.service.impl.CircuitBreaker;
+import com.stripe.StripeClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@ConditionalOnProperty(name = StripeConfig.PAYMENT_PROVIDER_PROPERTY,
+        havingValue = StripeConfig.STRIPE_PROVIDER, matchIfMissing = true)
+public class StripeConfig {
+    public static final String PAYMENT_PROVIDER_PROPERTY = "payment.provider";
+    public static final String STRIPE_PROVIDER = "stripe";
+    public static final String PAYMENT_PROVIDER_EXECUTOR = "paymentProviderExecutor";
+    private static final String THREAD_NAME_PREFIX = "stripe-";
+
+    @Value("${stripe.secret.key}")
+    private String stripeSecretKey;
+    @Value("${stripe.api-base:https://api.stripe.com}")
+    private String apiBase;
+    @Value("${stripe.connect-timeout:2s}")
+    private Duration connectTimeout;
+    @Value("${stripe.read-timeout:10s}")
+    private Duration readTimeout;
+    @Value("${stripe.max-network-retries:1}")
+    private int maxNetworkRetries;
+    @Value("${stripe.executor.pool-size:16}")
+    private int poolSize;
+    @Value("${stripe.executor.queue-capacity:64}")
+    private int queueCapacity;
+    @Value("${stripe.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+    @Value("${stripe.circuit-breaker.open-duration:30s}")
+    private Duration openDuration;
+
+    @Bean
+    public StripeClient stripeClient() {
+        return StripeClient.builder()
+                .setApiKey(stripeSecretKey)
+                .setApiBase(apiBase)
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setReadTimeout((int) readTimeout.toMillis())
+                .setMaxNetworkRetries(maxNetworkRetries)
+                .build();
+    }
+
+    @Bean
+    public CircuitBreaker stripeCircuitBreaker() {
+        return new CircuitBreaker(failureThreshold, openDuration);
+    }
+
+    @Bean(PAYMENT_PROVIDER_EXECUTOR)
+    public Executor paymentProviderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -6,10 +6,13 @@ import car.sharing.dto.user.UserRegistrationRequestDto;
 import car.sharing.dto.user.UserResponseDto;
 import car.sharing.exception.RegistrationException;
 import car.sharing.security.AuthenticationService;
+import car.sharing.security.PasswordHashingGateway;
 import car.sharing.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
@@ -28,18 +31,26 @@ public class AuthController {
 
     private final UserService userService;
     private final AuthenticationService authenticationService;
+    private final PasswordHashingGateway passwordHashingGateway;
 
     @PostMapping("/login")
     @Operation(summary = "Login", description = "Authenticates an user and returns JWT token")
-    public UserLoginResponseDto login(@RequestBody @Valid UserLoginRequestDto requestDto) {
-        return authenticationService.authenticate(requestDto);
+    public CompletableFuture<UserLoginResponseDto> login(
+            @RequestBody @Valid UserLoginRequestDto requestDto) {
+        return passwordHashingGateway.submit(() -> authenticationService.authenticate(requestDto));
     }
 
     @PostMapping("/registration")
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(summary = "Register a new user", description = "Create a new user and save it in DB")
-    public UserResponseDto register(@RequestBody @Valid UserRegistrationRequestDto requestDto)
-            throws RegistrationException {
-        return userService.register(requestDto);
+    public CompletableFuture<UserResponseDto> register(
+            @RequestBody @Valid UserRegistrationRequestDto requestDto) {
+        return passwordHashingGateway.submit(() -> {
+            try {
+                return userService.register(requestDto);
+            } catch (RegistrationException e) {
+                throw new CompletionException(e);
+            }
+        });
     }
 }
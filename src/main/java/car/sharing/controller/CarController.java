@@ -1,17 +1,30 @@
 package car.sharing.controller;
 
+import car.sharing.dto.car.AvailabilityPeriodDto;
+import car.sharing.dto.car.CarAvailabilityDto;
+import car.sharing.dto.car.CarAvailabilitySearchParametersDto;
 import car.sharing.dto.car.CarDto;
+import car.sharing.dto.car.CarFileFormat;
+import car.sharing.dto.car.CarImportResultDto;
+import car.sharing.dto.car.CarScrollParametersDto;
 import car.sharing.dto.car.CarSearchParametersDto;
 import car.sharing.dto.car.CreateCarRequestDto;
+import car.sharing.dto.scroll.ScrollResponseDto;
+import car.sharing.service.CarAvailabilityService;
 import car.sharing.service.CarService;
+import car.sharing.service.CarTransferService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
+import java.io.InputStream;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -20,9 +33,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Car management", description = "Endpoints for managing cars")
 @RequiredArgsConstructor
@@ -30,7 +46,12 @@ import org.springframework.web.bind.annotation.RestController;
 @Validated
 @RequestMapping("/cars")
 public class CarController {
+    private static final CarSearchParametersDto NO_SEARCH_PARAMETERS =
+            new CarSearchParametersDto(null, null);
+
     private final CarService carService;
+    private final CarAvailabilityService carAvailabilityService;
+    private final CarTransferService carTransferService;
 
     @PreAuthorize("hasRole('MANAGER')")
     @PostMapping
@@ -40,6 +61,30 @@ public class CarController {
         return carService.createCar(requestDto);
     }
 
+    @PreAuthorize("hasRole('MANAGER')")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Import cars",
+            description = "Create cars from a CSV file with a header row or from "
+                    + "newline-delimited JSON and get the errors of rejected rows")
+    public CarImportResultDto importCars(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream inputStream) {
+        return carTransferService.importCars(CarFileFormat.of(contentType), inputStream);
+    }
+
+    @PreAuthorize("hasRole('MANAGER')")
+    @GetMapping("/export")
+    @Operation(summary = "Export cars",
+            description = "Stream all cars as CSV or newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportCars(
+            @RequestParam(defaultValue = "CSV") CarFileFormat format) {
+        StreamingResponseBody body = outputStream ->
+                carTransferService.exportCars(format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(body);
+    }
+
     @PreAuthorize("hasRole('MANAGER')")
     @ResponseStatus(HttpStatus.OK)
     @PutMapping("/{id}")
@@ -71,9 +116,61 @@ public class CarController {
         return carService.findAllCars(pageable);
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll through all cars",
+            description = "Get a page of cars and a cursor to continue from, "
+                    + "sorted by id or by daily fee")
+    public ScrollResponseDto<CarDto> scrollCars(
+            @Valid CarScrollParametersDto scrollParameters) {
+        return carService.scroll(NO_SEARCH_PARAMETERS, scrollParameters);
+    }
+
     @GetMapping("/search")
-    @Operation(summary = "Search cars by parameters", description = "Search cars by parameters")
-    public List<CarDto> getAllByCarFrame(CarSearchParametersDto parametersDto) {
-        return carService.search(parametersDto);
+    @Operation(summary = "Search cars by parameters",
+            description = "Search cars by brand and frame, optionally only cars free "
+                    + "from one date to another, in a daily fee range, sorted by id "
+                    + "or daily fee")
+    public List<CarDto> getAllByCarFrame(
+            CarSearchParametersDto parametersDto,
+            @Valid CarAvailabilitySearchParametersDto availabilityParameters) {
+        if (availabilityParameters.isEmpty()) {
+            return carService.search(parametersDto);
+        }
+        return carAvailabilityService.search(parametersDto, availabilityParameters);
+    }
+
+    @GetMapping("/search/scroll")
+    @Operation(summary = "Scroll through cars by parameters",
+            description = "Get a page of cars matching the parameters and a cursor "
+                    + "to continue from")
+    public ScrollResponseDto<CarDto> scrollSearch(
+            CarSearchParametersDto parametersDto,
+            @Valid CarScrollParametersDto scrollParameters) {
+        return carService.scroll(parametersDto, scrollParameters);
+    }
+
+    @GetMapping("/{id}/availability")
+    @Operation(summary = "Get car availability",
+            description = "Get how many units of a car are free for every day "
+                    + "from the rental date up to the return date")
+    public CarAvailabilityDto getAvailability(@PathVariable @Positive Long id,
+                                              @Valid AvailabilityPeriodDto period) {
+        return carAvailabilityService.getAvailability(id, period);
+    }
+
+    @GetMapping("/available")
+    @Operation(summary = "Get available cars",
+            description = "Get cars with at least one unit free for the whole period")
+    public List<CarDto> findAvailableCars(@Valid AvailabilityPeriodDto period) {
+        return carAvailabilityService.findAvailableCars(period);
+    }
+
+    @PreAuthorize("hasRole('MANAGER')")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PostMapping("/availability/rebuild")
+    @Operation(summary = "Rebuild availability calendar",
+            description = "Recalculate booked days of every car from the rentals")
+    public void rebuildAvailability() {
+        carAvailabilityService.rebuild();
     }
 }
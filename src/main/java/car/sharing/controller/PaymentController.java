@@ -2,22 +2,27 @@ package car.sharing.controller;
 
 import car.sharing.dto.payment.external.PaymentResponseDto;
 import car.sharing.dto.payment.external.PaymentResponseForTelegram;
+import car.sharing.dto.payment.external.PaymentSearchParametersDto;
 import car.sharing.dto.payment.internal.RequestPaymentToStripeDto;
-import car.sharing.model.User;
+import car.sharing.security.AuthenticatedUser;
 import car.sharing.service.NotificationService;
 import car.sharing.service.PaymentService;
+import car.sharing.service.StripeWebhookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -30,19 +35,23 @@ import org.springframework.web.bind.annotation.RestController;
 public class PaymentController {
     private final NotificationService notificationService;
     private final PaymentService paymentService;
+    private final StripeWebhookService stripeWebhookService;
 
     @GetMapping
-    @Operation(summary = "Get payments", description = "Get users payments")
-    public List<PaymentResponseDto> getPayments(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
-        return paymentService.getPayments(user.getId());
+    @Operation(summary = "Get payments",
+            description = "Get users payments, optionally filtered by status and type")
+    public List<PaymentResponseDto> getPayments(Authentication authentication,
+                                                PaymentSearchParametersDto searchParameters,
+                                                Pageable pageable) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        return paymentService.getPayments(user.id(), searchParameters, pageable);
     }
 
     @PostMapping
     @Operation(summary = "Create a payment session",
             description = "Create a payment session to work with Stripe")
     @ResponseStatus(HttpStatus.CREATED)
-    public PaymentResponseDto createSession(@Valid @RequestBody
+    public CompletableFuture<PaymentResponseDto> createSession(@Valid @RequestBody
                                                     RequestPaymentToStripeDto stripeDto) {
         return paymentService.createPaymentSession(stripeDto);
     }
@@ -72,4 +81,13 @@ public class PaymentController {
         }
         return "Payment is cancel";
     }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping("/webhook")
+    @Operation(summary = "Stripe webhook",
+            description = "Receive a signed Stripe event and queue the payment status change")
+    public void receiveWebhook(@RequestBody String payload,
+                               @RequestHeader("Stripe-Signature") String signature) {
+        stripeWebhookService.receiveEvent(payload, signature);
+    }
 }
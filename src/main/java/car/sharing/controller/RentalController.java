@@ -1,17 +1,29 @@
 package car.sharing.controller;
 
+import car.sharing.dto.rental.RentalBatchReturnRequestDto;
 import car.sharing.dto.rental.RentalRequestDto;
 import car.sharing.dto.rental.RentalResponseDto;
+import car.sharing.dto.rental.RentalReturnResultDto;
+import car.sharing.dto.rental.RentalScrollParametersDto;
 import car.sharing.dto.rental.RentalSearchParametersDto;
-import car.sharing.model.User;
+import car.sharing.dto.scroll.ScrollResponseDto;
+import car.sharing.security.AuthenticatedUser;
 import car.sharing.service.RentalService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
@@ -22,6 +34,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Rental management", description = "Endpoints for managing rentals")
 @RequiredArgsConstructor
@@ -29,7 +42,12 @@ import org.springframework.web.bind.annotation.RestController;
 @Validated
 @RequestMapping("/rentals")
 public class RentalController {
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(
+            "application/x-ndjson");
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+
     private final RentalService rentalService;
+    private final ObjectMapper objectMapper;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
@@ -37,7 +55,7 @@ public class RentalController {
             description = "Create new rental by user")
     public RentalResponseDto createRental(@RequestBody @Valid RentalRequestDto requestDto,
                                                                  Authentication authentication) {
-        return rentalService.createRental(requestDto, getUser(authentication).getId());
+        return rentalService.createRental(requestDto, getUserId(authentication));
     }
 
     @PreAuthorize("hasRole('MANAGER')")
@@ -58,16 +76,63 @@ public class RentalController {
         return rentalService.actualReturnDate(id);
     }
 
+    @PreAuthorize("hasRole('MANAGER')")
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping("/return")
+    @Operation(summary = "Return several rentals at once",
+            description = "Return rentals by actual time and get a result for each rental id")
+    public List<RentalReturnResultDto> returnRentals(
+            @RequestBody @Valid RentalBatchReturnRequestDto requestDto) {
+        return rentalService.returnRentals(requestDto.rentalIds());
+    }
+
     @PreAuthorize("hasRole('MANAGER')")
     @GetMapping("/search")
     @Operation(summary = "Get user rentals by id",
             description = "get rentals by user ID and whether "
                     + "the rental is still active or not")
-    public List<RentalResponseDto> search(RentalSearchParametersDto searchParameters) {
-        return rentalService.search(searchParameters);
+    public List<RentalResponseDto> search(RentalSearchParametersDto searchParameters,
+                                          Pageable pageable) {
+        return rentalService.search(searchParameters, pageable);
+    }
+
+    @PreAuthorize("hasRole('MANAGER')")
+    @GetMapping("/search/scroll")
+    @Operation(summary = "Scroll through user rentals",
+            description = "Get a page of rentals by user ID and activity "
+                    + "and a cursor to continue from")
+    public ScrollResponseDto<RentalResponseDto> scrollSearch(
+            RentalSearchParametersDto searchParameters,
+            @Valid RentalScrollParametersDto scrollParameters) {
+        return rentalService.scroll(searchParameters, scrollParameters);
+    }
+
+    @PreAuthorize("hasRole('MANAGER')")
+    @GetMapping("/search/stream")
+    @Operation(summary = "Stream user rentals",
+            description = "Stream all rentals by user ID and activity "
+                    + "as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> streamSearch(
+            RentalSearchParametersDto searchParameters) {
+        ObjectWriter writer = objectMapper.writerFor(RentalResponseDto.class);
+        StreamingResponseBody body = outputStream -> rentalService.stream(searchParameters,
+                rental -> writeLine(writer, outputStream, rental));
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeLine(ObjectWriter writer, OutputStream outputStream,
+                           RentalResponseDto rental) {
+        try {
+            outputStream.write(writer.writeValueAsBytes(rental));
+            outputStream.write(LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    private User getUser(Authentication authentication) {
-        return (User) authentication.getPrincipal();
+    private Long getUserId(Authentication authentication) {
+        return ((AuthenticatedUser) authentication.getPrincipal()).id();
     }
 }
@@ -0,0 +1,51 @@
+package car.sharing.controller;
+
+import car.sharing.config.BotConfig;
+import car.sharing.telegram.TelegramBot;
+import car.sharing.telegram.TelegramUpdateProcessor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+@Tag(name = "Telegram webhook", description = "Endpoint for receiving Telegram updates")
+@RequiredArgsConstructor
+@RestController
+@ConditionalOnProperty(name = "telegram.bot.mode", havingValue = BotConfig.WEBHOOK_MODE)
+public class TelegramWebhookController {
+    private final BotConfig botConfig;
+    private final TelegramBot telegramBot;
+    private final TelegramUpdateProcessor updateProcessor;
+
+    @PostMapping(BotConfig.WEBHOOK_PATH)
+    @Operation(summary = "Receive a Telegram update",
+            description = "Accept an update pushed by Telegram and process it asynchronously")
+    public ResponseEntity<Void> receiveUpdate(
+            @RequestHeader(name = "X-Telegram-Bot-Api-Secret-Token", defaultValue = "")
+            String secret,
+            @RequestBody Update update) {
+        if (!isValidSecret(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!updateProcessor.submit(update, telegramBot::sendReply)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    private boolean isValidSecret(String secret) {
+        String expected = botConfig.getWebhookSecret();
+        return !expected.isBlank() && MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8),
+                secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -4,7 +4,7 @@ import car.sharing.dto.user.UpdateUserRole;
 import car.sharing.dto.user.UserRequestDto;
 import car.sharing.dto.user.UserResponseDto;
 import car.sharing.dto.user.UserResponseUpdateRole;
-import car.sharing.model.User;
+import car.sharing.security.AuthenticatedUser;
 import car.sharing.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -42,7 +42,7 @@ public class UserController {
     @GetMapping("/me")
     @Operation(summary = "Get profile", description = "Get user profile info")
     public UserResponseDto getUserInfo(Authentication authentication) {
-        return userService.getUserInfo(getUser(authentication));
+        return userService.getUserInfo(getUserId(authentication));
     }
 
     @PutMapping("/me")
@@ -50,10 +50,10 @@ public class UserController {
     @Operation(summary = "Update user info", description = "Update user profile info")
     public UserResponseDto updateUserInfo(@RequestBody @Valid UserRequestDto requestDto,
                                 Authentication authentication) {
-        return userService.updateUserInfo(requestDto, getUser(authentication).getId());
+        return userService.updateUserInfo(requestDto, getUserId(authentication));
     }
 
-    private User getUser(Authentication authentication) {
-        return (User) authentication.getPrincipal();
+    private Long getUserId(Authentication authentication) {
+        return ((AuthenticatedUser) authentication.getPrincipal()).id();
     }
 }
@@ -0,0 +1,12 @@
+package car.sharing.dto.car;
+
+import java.time.LocalDate;
+
+public record CarAvailabilityDto(
+        Long carId,
+        LocalDate from,
+        LocalDate to,
+        int totalUnits,
+        int freeUnits
+) {
+}
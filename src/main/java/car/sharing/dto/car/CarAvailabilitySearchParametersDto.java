@@ -0,0 +1,23 @@
+package car.sharing.dto.car;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.springframework.format.annotation.DateTimeFormat;
+
+public record CarAvailabilitySearchParametersDto(
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate from,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate to,
+        @PositiveOrZero
+        BigDecimal minDailyFee,
+        @PositiveOrZero
+        BigDecimal maxDailyFee,
+        CarSortOrder sort
+) {
+    public boolean isEmpty() {
+        return from == null && to == null && minDailyFee == null
+                && maxDailyFee == null && sort == null;
+    }
+}
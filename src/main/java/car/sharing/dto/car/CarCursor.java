@@ -0,0 +1,10 @@
+package car.sharing.dto.car;
+
+import java.math.BigDecimal;
+
+public record CarCursor(
+        CarSortOrder sort,
+        Long id,
+        BigDecimal dailyFee
+) {
+}
@@ -0,0 +1,27 @@
+package car.sharing.dto.car;
+
+import org.springframework.http.MediaType;
+
+public enum CarFileFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final MediaType mediaType;
+
+    CarFileFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static CarFileFormat of(MediaType mediaType) {
+        for (CarFileFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported car file format: " + mediaType);
+    }
+}
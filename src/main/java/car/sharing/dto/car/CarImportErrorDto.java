@@ -0,0 +1,7 @@
+package car.sharing.dto.car;
+
+public record CarImportErrorDto(
+        long line,
+        String message
+) {
+}
@@ -0,0 +1,10 @@
+package car.sharing.dto.car;
+
+import java.util.List;
+
+public record CarImportResultDto(
+        long imported,
+        long rejected,
+        List<CarImportErrorDto> errors
+) {
+}
@@ -0,0 +1,13 @@
+package car.sharing.dto.car;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+
+public record CarScrollParametersDto(
+        String cursor,
+        @Positive
+        @Max(100)
+        Integer size,
+        CarSortOrder sort
+) {
+}
@@ -0,0 +1,6 @@
+package car.sharing.dto.car;
+
+public enum CarSortOrder {
+    ID,
+    DAILY_FEE
+}
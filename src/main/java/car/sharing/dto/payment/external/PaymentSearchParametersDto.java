@@ -0,0 +1,9 @@
+package car.sharing.dto.payment.external;
+
+import car.sharing.model.Payment;
+
+public record PaymentSearchParametersDto(
+        Payment.Status status,
+        Payment.Type type
+) {
+}
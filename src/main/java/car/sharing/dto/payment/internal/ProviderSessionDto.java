@@ -0,0 +1,10 @@
+package car.sharing.dto.payment.internal;
+
+import java.time.Instant;
+
+public record ProviderSessionDto(
+        String id,
+        String url,
+        Instant expiresAt
+) {
+}
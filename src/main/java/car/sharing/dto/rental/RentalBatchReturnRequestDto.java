@@ -0,0 +1,14 @@
+package car.sharing.dto.rental;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record RentalBatchReturnRequestDto(
+        @NotEmpty(message = "At least one rental id is required")
+        @Size(max = 500, message = "At most 500 rentals can be returned at once")
+        List<@NotNull @Positive Long> rentalIds
+) {
+}
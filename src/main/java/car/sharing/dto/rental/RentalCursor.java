@@ -0,0 +1,4 @@
+package car.sharing.dto.rental;
+
+public record RentalCursor(Long id) {
+}
@@ -1,6 +1,7 @@
 package car.sharing.dto.rental;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDate;
 
@@ -9,6 +10,7 @@ public record RentalRequestDto(
         @JsonFormat(pattern = "yyyy-MM-dd")
         LocalDate rentalDate,
         @NotNull(message = "Return date is required")
+        @FutureOrPresent(message = "Return date can`t be in the past")
         @JsonFormat(pattern = "yyyy-MM-dd")
         LocalDate returnDate,
         @NotNull
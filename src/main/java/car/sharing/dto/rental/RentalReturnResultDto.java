@@ -0,0 +1,8 @@
+package car.sharing.dto.rental;
+
+public record RentalReturnResultDto(
+        Long rentalId,
+        RentalReturnStatus status,
+        RentalResponseDto rental
+) {
+}
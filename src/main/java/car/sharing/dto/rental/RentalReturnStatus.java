@@ -0,0 +1,7 @@
+package car.sharing.dto.rental;
+
+public enum RentalReturnStatus {
+    RETURNED,
+    ALREADY_RETURNED,
+    NOT_FOUND
+}
@@ -0,0 +1,12 @@
+package car.sharing.dto.rental;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+
+public record RentalScrollParametersDto(
+        String cursor,
+        @Positive
+        @Max(100)
+        Integer size
+) {
+}
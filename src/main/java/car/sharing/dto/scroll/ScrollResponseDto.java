@@ -0,0 +1,6 @@
+package car.sharing.dto.scroll;
+
+import java.util.List;
+
+public record ScrollResponseDto<T>(List<T> content, String nextCursor) {
+}
@@ -0,0 +1,7 @@
+package car.sharing.exception;
+
+public class CarNotAvailableException extends RuntimeException {
+    public CarNotAvailableException(String message) {
+        super(message);
+    }
+}
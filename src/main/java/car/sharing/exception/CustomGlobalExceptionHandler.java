@@ -21,6 +21,7 @@ public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler
     private static final String TIMESTAMP_PARAM = "timestamp";
     private static final String HTTP_STATUS_PARAM = "http_status";
     private static final String ERRORS_PARAM = "errors";
+    private static final String RETRY_AFTER_SECONDS = "1";
 
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
@@ -64,6 +65,39 @@ public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     }
 
+    @ExceptionHandler(CarNotAvailableException.class)
+    public ResponseEntity<Object> carNotAvailableException(CarNotAvailableException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidRentalPeriodException.class)
+    public ResponseEntity<Object> invalidRentalPeriodException(InvalidRentalPeriodException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Object> invalidCursorException(InvalidCursorException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidStripeEventException.class)
+    public ResponseEntity<Object> invalidStripeEventException(InvalidStripeEventException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    @ExceptionHandler(PaymentProviderUnavailableException.class)
+    public ResponseEntity<Object> paymentProviderUnavailableException(
+            PaymentProviderUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Object> tooManyRequestsException(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(e.getMessage());
+    }
+
     @ExceptionHandler(NotificationException.class)
     public ResponseEntity<Object> notificationException(NotificationException e) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
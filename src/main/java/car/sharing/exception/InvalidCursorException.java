@@ -0,0 +1,11 @@
+package car.sharing.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package car.sharing.exception;
+
+public class InvalidRentalPeriodException extends RuntimeException {
+    public InvalidRentalPeriodException(String message) {
+        super(message);
+    }
+}
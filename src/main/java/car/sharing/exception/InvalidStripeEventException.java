@@ -0,0 +1,11 @@
+package car.sharing.exception;
+
+public class InvalidStripeEventException extends RuntimeException {
+    public InvalidStripeEventException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public InvalidStripeEventException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package car.sharing.exception;
+
+public class PaymentProviderUnavailableException extends RuntimeException {
+    public PaymentProviderUnavailableException(String message) {
+        super(message);
+    }
+
+    public PaymentProviderUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package car.sharing.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,21 @@
+package car.sharing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "car_booked_days")
+@EqualsAndHashCode(of = {"id"})
+public class CarBookedDay {
+    @EmbeddedId
+    private CarBookedDayId id;
+    @Column(name = "units_booked", nullable = false)
+    private int unitsBooked;
+}
@@ -0,0 +1,24 @@
+package car.sharing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class CarBookedDayId implements Serializable {
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+    @Column(name = "booked_date", nullable = false)
+    private LocalDate bookedDate;
+}
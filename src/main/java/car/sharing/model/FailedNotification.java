@@ -0,0 +1,33 @@
+package car.sharing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "failed_notifications")
+@EqualsAndHashCode(of = {"id"})
+public class FailedNotification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "chat_id", nullable = false)
+    private Long chatId;
+    @Column(nullable = false, length = 4096)
+    private String message;
+    @Column(nullable = false, length = 1000)
+    private String reason;
+    @Column(nullable = false)
+    private int attempts;
+    @Column(name = "failed_at", nullable = false)
+    private LocalDateTime failedAt;
+}
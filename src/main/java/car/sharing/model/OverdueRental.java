@@ -0,0 +1,26 @@
+package car.sharing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "overdue_rentals")
+@EqualsAndHashCode(of = {"rentalId"})
+public class OverdueRental {
+    @Id
+    @Column(name = "rental_id")
+    private Long rentalId;
+    @Column(name = "detected_on", nullable = false)
+    private LocalDate detectedOn;
+    @Column(name = "amount_due", nullable = false)
+    private BigDecimal amountDue;
+}
@@ -13,6 +13,7 @@ import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.net.URL;
+import java.time.Instant;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -43,6 +44,8 @@ public class Payment {
     private URL sessionUrl;
     @Column(nullable = false, unique = true)
     private String sessionId;
+    @Column(name = "session_expires_at")
+    private Instant sessionExpiresAt;
     @Column(nullable = false)
     private BigDecimal totalPrice;
     @Column(nullable = false, columnDefinition = "TINYINT")
@@ -51,7 +54,8 @@ public class Payment {
     public enum Status {
         PENDING,
         PAID,
-        CANCELED
+        CANCELED,
+        EXPIRED
     }
 
     public enum Type {
@@ -0,0 +1,29 @@
+package car.sharing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "scheduled_jobs")
+@EqualsAndHashCode(of = {"name"})
+public class ScheduledJob {
+    @Id
+    private String name;
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+    @Column(name = "watermark_date", nullable = false)
+    private LocalDate watermarkDate;
+    @Column(name = "watermark_id", nullable = false)
+    private Long watermarkId;
+}
@@ -0,0 +1,34 @@
+package car.sharing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "stripe_events")
+@EqualsAndHashCode(of = {"eventId"})
+public class StripeEvent {
+    @Id
+    @Column(name = "event_id")
+    private String eventId;
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+    @Column(name = "session_id", nullable = false)
+    private String sessionId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false, columnDefinition = "varchar")
+    private Payment.Status paymentStatus;
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
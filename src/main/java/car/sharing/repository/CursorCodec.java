@@ -0,0 +1,33 @@
+package car.sharing.repository;
+
+import car.sharing.exception.InvalidCursorException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Base64;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@RequiredArgsConstructor
+@Component
+public class CursorCodec {
+    private final ObjectMapper objectMapper;
+
+    public String encode(Object cursor) {
+        try {
+            return Base64.getUrlEncoder()
+                    .withoutPadding()
+                    .encodeToString(objectMapper.writeValueAsBytes(cursor));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Can`t encode cursor: " + cursor, e);
+        }
+    }
+
+    public <T> T decode(String cursor, Class<T> cursorType) {
+        try {
+            return objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), cursorType);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package car.sharing.repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MapSpecificationProviderManager<T> implements SpecificationProviderManager<T> {
+    private final Map<String, SpecificationProvider<T>> specificationProviders;
+
+    public MapSpecificationProviderManager(List<SpecificationProvider<T>> providers) {
+        Map<String, SpecificationProvider<T>> providersByKey = new HashMap<>();
+        for (SpecificationProvider<T> provider : providers) {
+            SpecificationProvider<T> duplicate = providersByKey.put(provider.getKey(), provider);
+            if (duplicate != null) {
+                throw new IllegalStateException("Specification providers "
+                        + duplicate.getClass().getSimpleName() + " and "
+                        + provider.getClass().getSimpleName()
+                        + " are registered for the same key: " + provider.getKey());
+            }
+        }
+        this.specificationProviders = Map.copyOf(providersByKey);
+    }
+
+    @Override
+    public SpecificationProvider<T> getSpecificationProvider(String key) {
+        SpecificationProvider<T> provider = specificationProviders.get(key);
+        if (provider == null) {
+            throw new IllegalArgumentException(
+                    "Can`t find correct specification provider for key: " + key);
+        }
+        return provider;
+    }
+}
@@ -0,0 +1,21 @@
+package car.sharing.repository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+public final class SpecificationParameters {
+    private SpecificationParameters() {
+    }
+
+    public static <T extends Comparable<? super T>> List<T> normalize(T[] values) {
+        if (values == null) {
+            return List.of();
+        }
+        return Arrays.stream(values)
+                .filter(Objects::nonNull)
+                .sorted()
+                .distinct()
+                .toList();
+    }
+}
@@ -0,0 +1,88 @@
+package car.sharing.repository.availability;
+
+import car.sharing.model.CarBookedDay;
+import car.sharing.model.CarBookedDayId;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CarBookedDayRepository extends JpaRepository<CarBookedDay, CarBookedDayId> {
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO car_booked_days (car_id, booked_date, units_booked) "
+            + "WITH RECURSIVE days AS ("
+            + "SELECT CAST(:from AS DATE) AS booked_date "
+            + "UNION ALL "
+            + "SELECT booked_date + INTERVAL 1 DAY FROM days "
+            + "WHERE booked_date + INTERVAL 1 DAY < :to) "
+            + "SELECT :carId, booked_date, 0 FROM days ORDER BY booked_date", nativeQuery = true)
+    int insertMissingDays(@Param("carId") Long carId, @Param("from") LocalDate from,
+                          @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = "UPDATE car_booked_days SET units_booked = units_booked + 1 "
+            + "WHERE car_id = :carId AND booked_date >= :from AND booked_date < :to "
+            + "AND units_booked < :units ORDER BY booked_date", nativeQuery = true)
+    int bookDays(@Param("carId") Long carId, @Param("from") LocalDate from,
+                 @Param("to") LocalDate to, @Param("units") int units);
+
+    @Modifying
+    @Query(value = "UPDATE car_booked_days SET units_booked = units_booked + :units "
+            + "WHERE car_id = :carId AND booked_date >= :from AND booked_date < :to "
+            + "ORDER BY booked_date", nativeQuery = true)
+    int extendDays(@Param("carId") Long carId, @Param("from") LocalDate from,
+                   @Param("to") LocalDate to, @Param("units") int units);
+
+    @Modifying
+    @Query(value = "UPDATE car_booked_days SET units_booked = GREATEST(units_booked - :units, 0) "
+            + "WHERE car_id = :carId AND booked_date >= :from AND booked_date < :to "
+            + "AND units_booked > 0 ORDER BY booked_date", nativeQuery = true)
+    int releaseDays(@Param("carId") Long carId, @Param("from") LocalDate from,
+                    @Param("to") LocalDate to, @Param("units") int units);
+
+    @Query("SELECT MAX(d.unitsBooked) FROM CarBookedDay d "
+            + "WHERE d.id.carId = :carId AND d.id.bookedDate >= :from "
+            + "AND d.id.bookedDate < :to")
+    Optional<Integer> findMaxUnitsBooked(@Param("carId") Long carId,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to);
+
+    @Query("SELECT d FROM CarBookedDay d "
+            + "WHERE d.id.bookedDate >= :from AND d.unitsBooked > 0")
+    List<CarBookedDay> findBookedFrom(@Param("from") LocalDate from);
+
+    @Query("SELECT d FROM CarBookedDay d "
+            + "WHERE d.id.carId = :carId AND d.id.bookedDate >= :from AND d.unitsBooked > 0")
+    List<CarBookedDay> findBookedFrom(@Param("carId") Long carId,
+                                      @Param("from") LocalDate from);
+
+    @Query(value = "SELECT car_id FROM car_booked_days "
+            + "WHERE updated_at > NOW(6) - INTERVAL :millis * 1000 MICROSECOND "
+            + "UNION SELECT id FROM cars "
+            + "WHERE updated_at > NOW(6) - INTERVAL :millis * 1000 MICROSECOND",
+            nativeQuery = true)
+    List<Long> findCarIdsChangedWithin(@Param("millis") long millis);
+
+    @Modifying
+    @Query(value = "DELETE FROM car_booked_days", nativeQuery = true)
+    void deleteAllDays();
+
+    @Modifying
+    @Query(value = "INSERT INTO car_booked_days (car_id, booked_date, units_booked) "
+            + "WITH RECURSIVE booked_days AS ("
+            + "SELECT car_id, rental_date AS booked_date, "
+            + "GREATEST(COALESCE(actual_return_date, return_date), rental_date) AS end_date "
+            + "FROM rentals WHERE is_deleted = FALSE "
+            + "UNION ALL "
+            + "SELECT car_id, booked_date + INTERVAL 1 DAY, end_date FROM booked_days "
+            + "WHERE booked_date + INTERVAL 1 DAY < end_date) "
+            + "SELECT car_id, booked_date, COUNT(*) FROM booked_days "
+            + "WHERE booked_date < end_date "
+            + "GROUP BY car_id, booked_date", nativeQuery = true)
+    int insertDaysFromRentals();
+}
@@ -0,0 +1,11 @@
+package car.sharing.repository.car;
+
+import car.sharing.model.Car;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface CarBulkRepository {
+    Stream<Car> streamAll();
+
+    void insertAll(List<Car> cars);
+}
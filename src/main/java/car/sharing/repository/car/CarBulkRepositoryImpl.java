@@ -0,0 +1,46 @@
+package car.sharing.repository.car;
+
+import car.sharing.model.Car;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+public class CarBulkRepositoryImpl implements CarBulkRepository {
+    // MySQL Connector/J only streams rows one by one for this fetch size,
+    // any other value buffers the whole result set in the driver
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    // IDENTITY ids turn off Hibernate insert batching, so bulk inserts go through JDBC,
+    // where rewriteBatchedStatements turns each batch into a multi-row INSERT
+    private static final String INSERT_CAR = "INSERT INTO cars "
+            + "(model, brand, car_frame, inventory, daily_fee, is_deleted) "
+            + "VALUES (?, ?, ?, ?, ?, FALSE)";
+
+    private final JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Car> streamAll() {
+        return entityManager.createQuery("SELECT c FROM Car c ORDER BY c.id", Car.class)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, STREAMING_FETCH_SIZE)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    public void insertAll(List<Car> cars) {
+        jdbcTemplate.batchUpdate(INSERT_CAR, cars, cars.size(), (statement, car) -> {
+            statement.setString(1, car.getModel());
+            statement.setString(2, car.getBrand());
+            statement.setString(3, car.getCarFrame().name());
+            statement.setInt(4, car.getInventory());
+            statement.setBigDecimal(5, car.getDailyFee());
+        });
+    }
+}
@@ -1,10 +1,33 @@
 package car.sharing.repository.car;
 
 import car.sharing.model.Car;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car> {
+public interface CarRepository extends JpaRepository<Car, Long>,
+        JpaSpecificationExecutor<Car>, CarBulkRepository {
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT c FROM Car c WHERE c.id = :id")
+    Optional<Car> findByIdForShare(@Param("id") Long id);
+
+    @Query(value = "SELECT id FROM cars WHERE id = :id FOR SHARE", nativeQuery = true)
+    List<Long> lockForShare(@Param("id") Long id);
+
+    @Query(value = "SELECT id FROM cars ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllForUpdate();
+
+    @Query("SELECT c FROM Car c WHERE c.inventory > COALESCE(("
+            + "SELECT MAX(d.unitsBooked) FROM CarBookedDay d WHERE d.id.carId = c.id "
+            + "AND d.id.bookedDate >= :from AND d.id.bookedDate < :to), 0) "
+            + "ORDER BY c.id")
+    List<Car> findAvailable(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
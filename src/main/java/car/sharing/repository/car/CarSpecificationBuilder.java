@@ -6,7 +6,9 @@ import static car.sharing.repository.car.spec.CarFrameSpecificationProvider.CAR_
 import car.sharing.dto.car.CarSearchParametersDto;
 import car.sharing.model.Car;
 import car.sharing.repository.SpecificationBuilder;
+import car.sharing.repository.SpecificationParameters;
 import car.sharing.repository.SpecificationProviderManager;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
@@ -18,17 +20,19 @@ public class CarSpecificationBuilder implements SpecificationBuilder<Car, CarSea
 
     @Override
     public Specification<Car> build(CarSearchParametersDto searchParameters) {
+        List<String> brands = SpecificationParameters.normalize(searchParameters.brands());
+        List<String> carFrames = SpecificationParameters.normalize(searchParameters.carFrames());
         Specification<Car> spec = Specification.where(null);
-        if (searchParameters.brands() != null && searchParameters.brands().length > 0) {
+        if (!brands.isEmpty()) {
             spec = spec.and(carSpecificationProviderManager
                 .getSpecificationProvider(BRAND_SPECIFICATION)
-                .getSpecification(searchParameters.brands()));
+                .getSpecification(brands.toArray()));
         }
 
-        if (searchParameters.carFrames() != null && searchParameters.carFrames().length > 0) {
+        if (!carFrames.isEmpty()) {
             spec = spec.and(carSpecificationProviderManager
                 .getSpecificationProvider(CAR_FRAME_SPECIFICATION)
-                .getSpecification(searchParameters.carFrames()));
+                .getSpecification(carFrames.toArray()));
         }
         return spec;
     }
@@ -0,0 +1,42 @@
+package car.sharing.repository.job;
+
+import car.sharing.model.ScheduledJob;
+import java.time.LocalDate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScheduledJobRepository extends JpaRepository<ScheduledJob, String> {
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO scheduled_jobs "
+            + "(name, lease_until, watermark_date, watermark_id) "
+            + "VALUES (:name, NOW(), :watermarkDate, 0)", nativeQuery = true)
+    int createIfMissing(@Param("name") String name,
+                        @Param("watermarkDate") LocalDate watermarkDate);
+
+    @Modifying
+    @Query(value = "UPDATE scheduled_jobs SET lease_owner = :owner, "
+            + "lease_until = NOW() + INTERVAL :seconds SECOND "
+            + "WHERE name = :name AND (lease_until <= NOW() OR lease_owner = :owner)",
+            nativeQuery = true)
+    int acquireLease(@Param("name") String name, @Param("owner") String owner,
+                     @Param("seconds") long seconds);
+
+    @Modifying
+    @Query(value = "UPDATE scheduled_jobs SET lease_until = NOW() "
+            + "WHERE name = :name AND lease_owner = :owner", nativeQuery = true)
+    int releaseLease(@Param("name") String name, @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = "UPDATE scheduled_jobs SET watermark_date = :watermarkDate, "
+            + "watermark_id = :watermarkId, lease_until = NOW() + INTERVAL :seconds SECOND "
+            + "WHERE name = :name AND lease_owner = :owner AND lease_until > NOW()",
+            nativeQuery = true)
+    int advanceWatermark(@Param("name") String name, @Param("owner") String owner,
+                         @Param("watermarkDate") LocalDate watermarkDate,
+                         @Param("watermarkId") Long watermarkId,
+                         @Param("seconds") long seconds);
+}
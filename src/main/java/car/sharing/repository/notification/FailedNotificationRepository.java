@@ -0,0 +1,9 @@
+package car.sharing.repository.notification;
+
+import car.sharing.model.FailedNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FailedNotificationRepository extends JpaRepository<FailedNotification, Long> {
+}
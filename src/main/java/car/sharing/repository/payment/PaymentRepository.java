@@ -1,19 +1,50 @@
 package car.sharing.repository.payment;
 
+import car.sharing.dto.payment.external.PaymentResponseDto;
 import car.sharing.model.Payment;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-    @Query("SELECT p FROM Payment p JOIN p.rental r WHERE r.id IN :rentalIds")
-    List<Payment> findAllByRentalsId(@Param("rentalIds") List<Long> rentalIds);
+    @Query("SELECT new car.sharing.dto.payment.external.PaymentResponseDto("
+            + "p.id, p.status, p.type, p.sessionUrl, p.sessionId, p.totalPrice) "
+            + "FROM Payment p JOIN p.rental r "
+            + "WHERE r.user.id = :userId "
+            + "AND (:status IS NULL OR p.status = :status) "
+            + "AND (:type IS NULL OR p.type = :type) "
+            + "ORDER BY p.id")
+    List<PaymentResponseDto> findAllByUserId(@Param("userId") Long userId,
+                                             @Param("status") Payment.Status status,
+                                             @Param("type") Payment.Type type,
+                                             Pageable pageable);
 
     @EntityGraph(attributePaths = {"rental", "rental.user"})
     Optional<Payment> findBySessionId(String sessionId);
+
+    Optional<Payment> findByRentalIdAndTypeAndStatus(Long rentalId, Payment.Type type,
+                                                     Payment.Status status);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :newStatus "
+            + "WHERE p.id IN :ids AND p.status = :status")
+    int updateStatus(@Param("ids") List<Long> ids, @Param("status") Payment.Status status,
+                     @Param("newStatus") Payment.Status newStatus);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :newStatus "
+            + "WHERE p.sessionId IN :sessionIds AND p.status IN :statuses")
+    int updateStatusBySessionIds(@Param("sessionIds") Collection<String> sessionIds,
+                                 @Param("statuses") Collection<Payment.Status> statuses,
+                                 @Param("newStatus") Payment.Status newStatus);
 }
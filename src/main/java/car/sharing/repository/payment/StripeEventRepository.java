@@ -0,0 +1,41 @@
+package car.sharing.repository.payment;
+
+import car.sharing.model.StripeEvent;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface StripeEventRepository extends JpaRepository<StripeEvent, String> {
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO stripe_events "
+            + "(event_id, event_type, session_id, payment_status, received_at) "
+            + "VALUES (:eventId, :eventType, :sessionId, :paymentStatus, NOW())",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("eventId") String eventId,
+                       @Param("eventType") String eventType,
+                       @Param("sessionId") String sessionId,
+                       @Param("paymentStatus") String paymentStatus);
+
+    @Query(value = "SELECT * FROM stripe_events WHERE processed_at IS NULL "
+            + "ORDER BY received_at, event_id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<StripeEvent> lockUnprocessed(@Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE stripe_events SET processed_at = NOW() "
+            + "WHERE event_id IN (:eventIds)", nativeQuery = true)
+    int markProcessed(@Param("eventIds") List<String> eventIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM stripe_events "
+            + "WHERE processed_at < NOW() - INTERVAL :seconds SECOND "
+            + "ORDER BY processed_at LIMIT :limit", nativeQuery = true)
+    int deleteProcessedBefore(@Param("seconds") long seconds, @Param("limit") int limit);
+}
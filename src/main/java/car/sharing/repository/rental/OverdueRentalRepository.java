@@ -0,0 +1,20 @@
+package car.sharing.repository.rental;
+
+import car.sharing.model.OverdueRental;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OverdueRentalRepository extends JpaRepository<OverdueRental, Long> {
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO overdue_rentals (rental_id, detected_on, amount_due) "
+            + "VALUES (:rentalId, :detectedOn, :amountDue)", nativeQuery = true)
+    int insertIfAbsent(@Param("rentalId") Long rentalId,
+                       @Param("detectedOn") LocalDate detectedOn,
+                       @Param("amountDue") BigDecimal amountDue);
+}
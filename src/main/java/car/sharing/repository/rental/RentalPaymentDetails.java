@@ -0,0 +1,8 @@
+package car.sharing.repository.rental;
+
+import car.sharing.model.Payment;
+import car.sharing.model.Rental;
+import java.util.List;
+
+public record RentalPaymentDetails(Rental rental, List<Payment> payments) {
+}
@@ -0,0 +1,7 @@
+package car.sharing.repository.rental;
+
+import java.util.Optional;
+
+public interface RentalPaymentDetailsRepository {
+    Optional<RentalPaymentDetails> findPaymentDetailsById(Long rentalId);
+}
@@ -0,0 +1,36 @@
+package car.sharing.repository.rental;
+
+import car.sharing.model.Payment;
+import car.sharing.model.Rental;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.springframework.transaction.annotation.Transactional;
+
+public class RentalPaymentDetailsRepositoryImpl implements RentalPaymentDetailsRepository {
+    private static final String PAYMENT_DETAILS_QUERY = "SELECT r, p FROM Rental r "
+            + "JOIN FETCH r.car JOIN FETCH r.user "
+            + "LEFT JOIN Payment p ON p.rental = r AND p.isDeleted = FALSE "
+            + "WHERE r.id = :id ORDER BY p.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<RentalPaymentDetails> findPaymentDetailsById(Long rentalId) {
+        List<Object[]> rows = entityManager.createQuery(PAYMENT_DETAILS_QUERY, Object[].class)
+                .setParameter("id", rentalId)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Payment> payments = rows.stream()
+                .map(row -> (Payment) row[1])
+                .filter(Objects::nonNull)
+                .toList();
+        return Optional.of(new RentalPaymentDetails((Rental) rows.get(0)[0], payments));
+    }
+}
@@ -1,18 +1,33 @@
 package car.sharing.repository.rental;
 
 import car.sharing.model.Rental;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface RentalRepository extends JpaRepository<Rental, Long>,
-        JpaSpecificationExecutor<Rental> {
+        JpaSpecificationExecutor<Rental>, RentalStreamingRepository,
+        RentalPaymentDetailsRepository {
     List<Rental> findAllByUserId(Long userId);
 
     @EntityGraph(attributePaths = {"car", "user"})
     Optional<Rental> findById(Long id);
+
+    @Query("SELECT r FROM Rental r JOIN FETCH r.car JOIN FETCH r.user "
+            + "WHERE r.isActive = true AND r.returnDate < :today "
+            + "AND (r.returnDate > :watermarkDate "
+            + "OR (r.returnDate = :watermarkDate AND r.id > :watermarkId)) "
+            + "ORDER BY r.returnDate, r.id")
+    List<Rental> findOverdueAfter(@Param("today") LocalDate today,
+                                  @Param("watermarkDate") LocalDate watermarkDate,
+                                  @Param("watermarkId") Long watermarkId,
+                                  Limit limit);
 }
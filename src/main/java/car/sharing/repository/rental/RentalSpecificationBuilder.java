@@ -6,7 +6,9 @@ import static car.sharing.repository.rental.spec.UserSpecificationProvider.USER_
 import car.sharing.dto.rental.RentalSearchParametersDto;
 import car.sharing.model.Rental;
 import car.sharing.repository.SpecificationBuilder;
+import car.sharing.repository.SpecificationParameters;
 import car.sharing.repository.SpecificationProviderManager;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
@@ -19,17 +21,19 @@ public class RentalSpecificationBuilder implements SpecificationBuilder<Rental,
 
     @Override
     public Specification<Rental> build(RentalSearchParametersDto searchParameters) {
+        List<Long> userIds = SpecificationParameters.normalize(searchParameters.userId());
+        List<Boolean> isActive = SpecificationParameters.normalize(searchParameters.isActive());
         Specification<Rental> spec = Specification.where(null);
-        if (searchParameters.userId() != null && searchParameters.userId().length > 0) {
+        if (!userIds.isEmpty()) {
             spec = spec.and(rentalSpecificationProviderManager
                     .getSpecificationProvider(USER_SPECIFICATION)
-                    .getSpecification(searchParameters.userId()));
+                    .getSpecification(userIds.toArray()));
         }
 
-        if (searchParameters.isActive() != null && searchParameters.isActive().length > 0) {
+        if (!isActive.isEmpty()) {
             spec = spec.and(rentalSpecificationProviderManager
                     .getSpecificationProvider(RENTAL_IS_ACTIVE_SPECIFICATION)
-                    .getSpecification(searchParameters.isActive()));
+                    .getSpecification(isActive.toArray()));
         }
         return spec;
     }
@@ -1,23 +0,0 @@
-package car.sharing.repository.rental;
-
-import car.sharing.model.Rental;
-import car.sharing.repository.SpecificationProvider;
-import car.sharing.repository.SpecificationProviderManager;
-import java.util.List;
-import lombok.RequiredArgsConstructor;
-import org.springframework.stereotype.Component;
-
-@RequiredArgsConstructor
-@Component
-public class RentalSpecificationProviderManager implements SpecificationProviderManager<Rental> {
-    private final List<SpecificationProvider<Rental>> rentalSpecificationProviders;
-
-    @Override
-    public SpecificationProvider<Rental> getSpecificationProvider(String key) {
-        return rentalSpecificationProviders.stream()
-                .filter(provider -> provider.getKey().equals(key))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException(
-                    "Can`t find correct specification provider for key: " + key));
-    }
-}
@@ -0,0 +1,9 @@
+package car.sharing.repository.rental;
+
+import car.sharing.model.Rental;
+import java.util.stream.Stream;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface RentalStreamingRepository {
+    Stream<Rental> streamAll(Specification<Rental> specification);
+}
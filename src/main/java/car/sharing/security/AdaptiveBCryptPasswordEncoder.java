@@ -0,0 +1,46 @@
+package car.sharing.security;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+    private static final Pattern STRENGTH_PATTERN = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final String CALIBRATION_PASSWORD = "calibrationPassword";
+
+    private final int strength;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public static int calibrate(Duration targetLatency, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode(CALIBRATION_PASSWORD);
+        long start = System.nanoTime();
+        probe.encode(CALIBRATION_PASSWORD);
+        long estimatedNanos = Math.max(1, System.nanoTime() - start);
+        int calibrated = minStrength;
+        while (calibrated < maxStrength && estimatedNanos * 2 <= targetLatency.toNanos()) {
+            calibrated++;
+            estimatedNanos *= 2;
+        }
+        return calibrated;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = STRENGTH_PATTERN.matcher(encodedPassword);
+        // never downgrade, so nodes sharing the user table can't rehash back and forth
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+}
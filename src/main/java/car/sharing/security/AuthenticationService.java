@@ -1,14 +1,18 @@
 package car.sharing.security;
 
+import car.sharing.config.CacheConfig;
 import car.sharing.dto.user.UserLoginRequestDto;
 import car.sharing.dto.user.UserLoginResponseDto;
+import car.sharing.exception.EntityNotFoundException;
 import car.sharing.model.User;
 import car.sharing.repository.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @RequiredArgsConstructor
 @Service
@@ -27,13 +31,18 @@ public class AuthenticationService {
         return new UserLoginResponseDto(token);
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS_CACHE, key = "#requestDto.email()")
     public void authenticateWithTelegram(UserLoginRequestDto requestDto,
                                             Long telegramId) {
         final Authentication authentication = authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(requestDto.email(),
                 requestDto.password())
         );
-        User user = (User) authentication.getPrincipal();
+        Long userId = ((AuthenticatedUser) authentication.getPrincipal()).id();
+        User user = userRepository.findById(userId)
+                .orElseThrow(() ->
+                        new EntityNotFoundException("Can`t find user by id: " + userId));
         user.setTelegramId(telegramId);
         userRepository.save(user);
     }
@@ -1,23 +1,41 @@
 package car.sharing.security;
 
+import car.sharing.config.CacheConfig;
 import car.sharing.exception.EntityNotFoundException;
 import car.sharing.repository.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @RequiredArgsConstructor
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService,
+        UserDetailsPasswordService {
     private final UserRepository userRepository;
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRINCIPALS_CACHE, key = "#email")
     public UserDetails loadUserByUsername(String email)
             throws UsernameNotFoundException {
+        // the cache shares one principal between requests, so it must not be a managed entity
         return userRepository.findByEmail(email)
+                .map(AuthenticatedUser::of)
                 .orElseThrow(() ->
                         new EntityNotFoundException("Can`t find user by email: " + email));
     }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS_CACHE, key = "#user.username")
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        AuthenticatedUser existingUser = (AuthenticatedUser) user;
+        userRepository.updatePassword(existingUser.id(), newPassword);
+        return existingUser.withPassword(newPassword);
+    }
 }
@@ -0,0 +1,29 @@
+package car.sharing.security;
+
+import car.sharing.config.PasswordHashingConfig;
+import car.sharing.exception.TooManyRequestsException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PasswordHashingGateway {
+    private final Executor executor;
+
+    public PasswordHashingGateway(
+            @Qualifier(PasswordHashingConfig.PASSWORD_HASHING_EXECUTOR) Executor executor) {
+        this.executor = executor;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException(
+                    "Too many authentication requests in progress, try again later", e);
+        }
+    }
+}
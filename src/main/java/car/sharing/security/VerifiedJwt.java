@@ -0,0 +1,10 @@
+package car.sharing.security;
+
+import io.jsonwebtoken.Claims;
+import java.util.Date;
+
+public record VerifiedJwt(String subject, Date expiration, Claims claims) {
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
@@ -0,0 +1,28 @@
+package car.sharing.service;
+
+import car.sharing.dto.car.AvailabilityPeriodDto;
+import car.sharing.dto.car.CarAvailabilityDto;
+import car.sharing.dto.car.CarAvailabilitySearchParametersDto;
+import car.sharing.dto.car.CarDto;
+import car.sharing.dto.car.CarSearchParametersDto;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CarAvailabilityService {
+    void book(Long carId, LocalDate from, LocalDate to);
+
+    void release(Long carId, LocalDate from, LocalDate to);
+
+    void release(Long carId, LocalDate from, LocalDate to, int units);
+
+    void extend(Long carId, LocalDate from, LocalDate to, int units);
+
+    CarAvailabilityDto getAvailability(Long carId, AvailabilityPeriodDto period);
+
+    List<CarDto> findAvailableCars(AvailabilityPeriodDto period);
+
+    List<CarDto> search(CarSearchParametersDto params,
+                        CarAvailabilitySearchParametersDto availability);
+
+    void rebuild();
+}
@@ -1,8 +1,10 @@
 package car.sharing.service;
 
 import car.sharing.dto.car.CarDto;
+import car.sharing.dto.car.CarScrollParametersDto;
 import car.sharing.dto.car.CarSearchParametersDto;
 import car.sharing.dto.car.CreateCarRequestDto;
+import car.sharing.dto.scroll.ScrollResponseDto;
 import java.util.List;
 import org.springframework.data.domain.Pageable;
 
@@ -18,4 +20,7 @@ public interface CarService {
     List<CarDto> findAllCars(Pageable pageable);
 
     List<CarDto> search(CarSearchParametersDto parametersDto);
+
+    ScrollResponseDto<CarDto> scroll(CarSearchParametersDto parametersDto,
+                                     CarScrollParametersDto scrollParameters);
 }
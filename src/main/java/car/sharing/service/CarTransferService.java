@@ -0,0 +1,12 @@
+package car.sharing.service;
+
+import car.sharing.dto.car.CarFileFormat;
+import car.sharing.dto.car.CarImportResultDto;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface CarTransferService {
+    CarImportResultDto importCars(CarFileFormat format, InputStream inputStream);
+
+    void exportCars(CarFileFormat format, OutputStream outputStream);
+}
@@ -0,0 +1,5 @@
+package car.sharing.service;
+
+public interface OverdueRentalService {
+    int detectOverdueRentals();
+}
@@ -0,0 +1,13 @@
+package car.sharing.service;
+
+import car.sharing.dto.payment.internal.DescriptionForStripeDto;
+import car.sharing.dto.payment.internal.ProviderSessionDto;
+import java.util.concurrent.CompletableFuture;
+
+public interface PaymentProvider {
+    CompletableFuture<ProviderSessionDto> createSession(DescriptionForStripeDto description,
+                                                        String idempotencyKey);
+
+    // completes with false when the session was already completed and can`t be expired
+    CompletableFuture<Boolean> expireSession(String sessionId);
+}
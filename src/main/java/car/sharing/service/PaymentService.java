@@ -2,13 +2,17 @@ package car.sharing.service;
 
 import car.sharing.dto.payment.external.PaymentResponseDto;
 import car.sharing.dto.payment.external.PaymentResponseForTelegram;
+import car.sharing.dto.payment.external.PaymentSearchParametersDto;
 import car.sharing.dto.payment.internal.RequestPaymentToStripeDto;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.data.domain.Pageable;
 
 public interface PaymentService {
-    List<PaymentResponseDto> getPayments(Long userId);
+    List<PaymentResponseDto> getPayments(Long userId, PaymentSearchParametersDto params,
+                                         Pageable pageable);
 
-    PaymentResponseDto createPaymentSession(RequestPaymentToStripeDto stripeDto);
+    CompletableFuture<PaymentResponseDto> createPaymentSession(RequestPaymentToStripeDto stripeDto);
 
     PaymentResponseForTelegram successPayment(String sessionId);
 
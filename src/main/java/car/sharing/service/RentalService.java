@@ -2,15 +2,27 @@ package car.sharing.service;
 
 import car.sharing.dto.rental.RentalRequestDto;
 import car.sharing.dto.rental.RentalResponseDto;
+import car.sharing.dto.rental.RentalReturnResultDto;
+import car.sharing.dto.rental.RentalScrollParametersDto;
 import car.sharing.dto.rental.RentalSearchParametersDto;
+import car.sharing.dto.scroll.ScrollResponseDto;
 import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.data.domain.Pageable;
 
 public interface RentalService {
     RentalResponseDto createRental(RentalRequestDto requestDto, Long userId);
 
-    List<RentalResponseDto> search(RentalSearchParametersDto search);
+    List<RentalResponseDto> search(RentalSearchParametersDto search, Pageable pageable);
+
+    ScrollResponseDto<RentalResponseDto> scroll(RentalSearchParametersDto search,
+                                                RentalScrollParametersDto scrollParameters);
+
+    void stream(RentalSearchParametersDto search, Consumer<RentalResponseDto> consumer);
 
     RentalResponseDto getRental(Long rentalId);
 
     RentalResponseDto actualReturnDate(Long rentalId);
+
+    List<RentalReturnResultDto> returnRentals(List<Long> rentalIds);
 }
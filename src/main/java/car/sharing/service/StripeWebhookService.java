@@ -0,0 +1,9 @@
+package car.sharing.service;
+
+public interface StripeWebhookService {
+    void receiveEvent(String payload, String signature);
+
+    int processPendingEvents();
+
+    int purgeProcessedEvents();
+}
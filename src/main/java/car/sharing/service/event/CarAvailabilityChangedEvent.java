@@ -0,0 +1,11 @@
+package car.sharing.service.event;
+
+public record CarAvailabilityChangedEvent(Long carId) {
+    public static CarAvailabilityChangedEvent allCars() {
+        return new CarAvailabilityChangedEvent(null);
+    }
+
+    public boolean isAllCars() {
+        return carId == null;
+    }
+}
@@ -0,0 +1,239 @@
+package car.sharing.service.impl;
+
+import car.sharing.dto.car.CarAvailabilitySearchParametersDto;
+import car.sharing.dto.car.CarDto;
+import car.sharing.dto.car.CarSearchParametersDto;
+import car.sharing.dto.car.CarSortOrder;
+import car.sharing.mapper.CarMapper;
+import car.sharing.model.Car;
+import car.sharing.model.CarBookedDay;
+import car.sharing.repository.availability.CarBookedDayRepository;
+import car.sharing.repository.car.CarRepository;
+import car.sharing.service.event.CarAvailabilityChangedEvent;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Component
+public class CarAvailabilityIndex {
+    private static final String THREAD_NAME = "car-availability-index";
+    private static final Comparator<CarDto> BY_ID = Comparator.comparing(CarDto::id);
+    private static final Comparator<CarDto> BY_DAILY_FEE =
+            Comparator.comparing(CarDto::dailyFee).thenComparing(CarDto::id);
+
+    private final CarRepository carRepository;
+    private final CarBookedDayRepository carBookedDayRepository;
+    private final CarMapper carMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final long changeLookbackMillis;
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Long> pendingCars = ConcurrentHashMap.newKeySet();
+    private volatile Map<Long, IndexedCar> cars;
+
+    public CarAvailabilityIndex(CarRepository carRepository,
+                                CarBookedDayRepository carBookedDayRepository,
+                                CarMapper carMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${car.availability-index.poll-interval:5s}")
+                                Duration pollInterval,
+                                @Value("${car.availability-index.change-overlap:10s}")
+                                Duration changeOverlap) {
+        this.carRepository = carRepository;
+        this.carBookedDayRepository = carBookedDayRepository;
+        this.carMapper = carMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.changeLookbackMillis = pollInterval.plus(changeOverlap).toMillis();
+    }
+
+    public List<CarDto> search(CarSearchParametersDto params,
+                               CarAvailabilitySearchParametersDto availability) {
+        Map<Long, IndexedCar> snapshot = cars;
+        if (snapshot == null) {
+            refresh();
+            snapshot = cars;
+        }
+        Set<String> brands = toSet(params.brands());
+        Set<String> carFrames = toSet(params.carFrames());
+        return snapshot.values().stream()
+                .filter(car -> brands.isEmpty() || brands.contains(car.car().brand()))
+                .filter(car -> carFrames.isEmpty()
+                        || carFrames.contains(car.car().carFrame().name()))
+                .filter(car -> isInPriceRange(car.car().dailyFee(), availability))
+                .filter(car -> availability.from() == null
+                        || car.freeUnits(availability.from(), availability.to()) > 0)
+                .map(IndexedCar::car)
+                .sorted(availability.sort() == CarSortOrder.DAILY_FEE ? BY_DAILY_FEE : BY_ID)
+                .toList();
+    }
+
+    public void refresh() {
+        try {
+            updater.submit(this::loadAll).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the availability index", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Can`t load the availability index", e.getCause());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        submit(this::loadAll);
+    }
+
+    @Scheduled(fixedDelayString = "${car.availability-index.refresh-interval:10m}",
+            initialDelayString = "${car.availability-index.refresh-interval:10m}")
+    public void scheduledRefresh() {
+        submit(this::loadAll);
+    }
+
+    // picks up bookings and car updates made by other nodes; the overlap covers commit lag
+    @Scheduled(fixedDelayString = "${car.availability-index.poll-interval:5s}",
+            initialDelayString = "${car.availability-index.poll-interval:5s}")
+    public void pollChanges() {
+        submit(this::reloadChanged);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(CarAvailabilityChangedEvent event) {
+        if (event.isAllCars()) {
+            submit(this::loadAll);
+        } else if (pendingCars.add(event.carId())) {
+            submit(() -> {
+                pendingCars.remove(event.carId());
+                reload(event.carId());
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        updater.shutdownNow();
+    }
+
+    private void submit(Runnable update) {
+        try {
+            updater.submit(update);
+        } catch (RejectedExecutionException e) {
+            log.debug("Availability index is shut down, skipping the update");
+        }
+    }
+
+    private void loadAll() {
+        try {
+            Map<Long, IndexedCar> loaded = transactionTemplate.execute(status -> {
+                Map<Long, NavigableMap<LocalDate, Integer>> bookedDays = groupByCar(
+                        carBookedDayRepository.findBookedFrom(LocalDate.now()));
+                Map<Long, IndexedCar> indexedCars = new ConcurrentHashMap<>();
+                for (Car car : carRepository.findAll()) {
+                    indexedCars.put(car.getId(), new IndexedCar(carMapper.toDto(car),
+                            bookedDays.getOrDefault(car.getId(), Collections.emptyNavigableMap())));
+                }
+                return indexedCars;
+            });
+            cars = loaded;
+            log.info("Loaded {} cars into the availability index", loaded.size());
+        } catch (RuntimeException e) {
+            log.error("Can`t load the availability index", e);
+            throw e;
+        }
+    }
+
+    private void reloadChanged() {
+        if (cars == null) {
+            return;
+        }
+        try {
+            carBookedDayRepository.findCarIdsChangedWithin(changeLookbackMillis)
+                    .forEach(this::reload);
+        } catch (RuntimeException e) {
+            log.warn("Can`t poll availability changes, they will be fixed by the next refresh",
+                    e);
+        }
+    }
+
+    private void reload(Long carId) {
+        Map<Long, IndexedCar> snapshot = cars;
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            IndexedCar indexedCar = transactionTemplate.execute(status -> carRepository
+                    .findById(carId)
+                    .map(car -> new IndexedCar(carMapper.toDto(car), groupByCar(
+                            carBookedDayRepository.findBookedFrom(carId, LocalDate.now()))
+                            .getOrDefault(carId, Collections.emptyNavigableMap())))
+                    .orElse(null));
+            if (indexedCar == null) {
+                snapshot.remove(carId);
+            } else {
+                snapshot.put(carId, indexedCar);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Can`t reload car {} into the availability index, "
+                    + "it will be fixed by the next refresh", carId, e);
+        }
+    }
+
+    private Map<Long, NavigableMap<LocalDate, Integer>> groupByCar(List<CarBookedDay> days) {
+        Map<Long, NavigableMap<LocalDate, Integer>> bookedDays = new HashMap<>();
+        for (CarBookedDay day : days) {
+            bookedDays.computeIfAbsent(day.getId().getCarId(), carId -> new TreeMap<>())
+                    .put(day.getId().getBookedDate(), day.getUnitsBooked());
+        }
+        return bookedDays;
+    }
+
+    private boolean isInPriceRange(BigDecimal dailyFee,
+                                   CarAvailabilitySearchParametersDto availability) {
+        return (availability.minDailyFee() == null
+                || dailyFee.compareTo(availability.minDailyFee()) >= 0)
+                && (availability.maxDailyFee() == null
+                || dailyFee.compareTo(availability.maxDailyFee()) <= 0);
+    }
+
+    private Set<String> toSet(String[] values) {
+        return values == null ? Set.of() : Set.copyOf(Arrays.asList(values));
+    }
+
+    private record IndexedCar(CarDto car, NavigableMap<LocalDate, Integer> bookedUnits) {
+        int freeUnits(LocalDate from, LocalDate to) {
+            int booked = 0;
+            for (int units : bookedUnits.subMap(from, true, to, false).values()) {
+                booked = Math.max(booked, units);
+            }
+            return car.inventory() - booked;
+        }
+    }
+}
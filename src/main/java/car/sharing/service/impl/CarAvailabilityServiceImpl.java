@@ -0,0 +1,167 @@
+package car.sharing.service.impl;
+
+import car.sharing.dto.car.AvailabilityPeriodDto;
+import car.sharing.dto.car.CarAvailabilityDto;
+import car.sharing.dto.car.CarAvailabilitySearchParametersDto;
+import car.sharing.dto.car.CarDto;
+import car.sharing.dto.car.CarSearchParametersDto;
+import car.sharing.exception.CarNotAvailableException;
+import car.sharing.exception.EntityNotFoundException;
+import car.sharing.exception.InvalidRentalPeriodException;
+import car.sharing.mapper.CarMapper;
+import car.sharing.model.Car;
+import car.sharing.repository.availability.CarBookedDayRepository;
+import car.sharing.repository.car.CarRepository;
+import car.sharing.service.CarAvailabilityService;
+import car.sharing.service.event.CarAvailabilityChangedEvent;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class CarAvailabilityServiceImpl implements CarAvailabilityService {
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    private final CarRepository carRepository;
+    private final CarBookedDayRepository carBookedDayRepository;
+    private final CarMapper carMapper;
+    private final CarAvailabilityIndex carAvailabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate insertDaysTransaction;
+
+    public CarAvailabilityServiceImpl(CarRepository carRepository,
+                                      CarBookedDayRepository carBookedDayRepository,
+                                      CarMapper carMapper,
+                                      CarAvailabilityIndex carAvailabilityIndex,
+                                      ApplicationEventPublisher eventPublisher,
+                                      PlatformTransactionManager transactionManager) {
+        this.carRepository = carRepository;
+        this.carBookedDayRepository = carBookedDayRepository;
+        this.carMapper = carMapper;
+        this.carAvailabilityIndex = carAvailabilityIndex;
+        this.eventPublisher = eventPublisher;
+        this.insertDaysTransaction = new TransactionTemplate(transactionManager);
+        this.insertDaysTransaction.setPropagationBehavior(
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional
+    public void book(Long carId, LocalDate from, LocalDate to) {
+        checkPeriod(from, to);
+        // a shared lock only keeps rebuilds and inventory changes out, bookings run in parallel
+        Car car = carRepository.findByIdForShare(carId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Can`t find a car by id: " + carId));
+        insertMissingDays(carId, from, to);
+        long days = ChronoUnit.DAYS.between(from, to);
+        if (carBookedDayRepository.bookDays(carId, from, to, car.getInventory()) < days) {
+            throw new CarNotAvailableException("Car with id: " + carId
+                    + " is not available for rent");
+        }
+        eventPublisher.publishEvent(new CarAvailabilityChangedEvent(carId));
+    }
+
+    @Override
+    @Transactional
+    public void release(Long carId, LocalDate from, LocalDate to) {
+        release(carId, from, to, 1);
+    }
+
+    @Override
+    @Transactional
+    public void release(Long carId, LocalDate from, LocalDate to, int units) {
+        if (from.isBefore(to) && units > 0) {
+            carRepository.lockForShare(carId);
+            carBookedDayRepository.releaseDays(carId, from, to, units);
+            eventPublisher.publishEvent(new CarAvailabilityChangedEvent(carId));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void extend(Long carId, LocalDate from, LocalDate to, int units) {
+        // an overdue car is already out, so the overrun days are booked even past inventory
+        if (from.isBefore(to) && units > 0) {
+            carRepository.lockForShare(carId);
+            insertMissingDays(carId, from, to);
+            carBookedDayRepository.extendDays(carId, from, to, units);
+            eventPublisher.publishEvent(new CarAvailabilityChangedEvent(carId));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CarAvailabilityDto getAvailability(Long carId, AvailabilityPeriodDto period) {
+        checkPeriod(period.from(), period.to());
+        Car car = carRepository.findById(carId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "Can`t find a car by id: " + carId));
+        int unitsBooked = carBookedDayRepository.findMaxUnitsBooked(
+                carId, period.from(), period.to()).orElse(0);
+        return new CarAvailabilityDto(carId, period.from(), period.to(), car.getInventory(),
+                Math.max(0, car.getInventory() - unitsBooked));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CarDto> findAvailableCars(AvailabilityPeriodDto period) {
+        checkPeriod(period.from(), period.to());
+        return carRepository.findAvailable(period.from(), period.to())
+                .stream()
+                .map(carMapper::toDto)
+                .toList();
+    }
+
+    @Override
+    public List<CarDto> search(CarSearchParametersDto params,
+                               CarAvailabilitySearchParametersDto availability) {
+        if (availability.from() != null || availability.to() != null) {
+            if (availability.from() == null || availability.to() == null) {
+                throw new InvalidRentalPeriodException(
+                        "Both from and to are required to search available cars");
+            }
+            checkPeriod(availability.from(), availability.to());
+        }
+        return carAvailabilityIndex.search(params, availability);
+    }
+
+    @Override
+    @Transactional
+    public void rebuild() {
+        // waits for bookings and returns in flight and keeps new ones out until the swap commits
+        carRepository.lockAllForUpdate();
+        carBookedDayRepository.deleteAllDays();
+        carBookedDayRepository.insertDaysFromRentals();
+        eventPublisher.publishEvent(CarAvailabilityChangedEvent.allCars());
+    }
+
+    private void insertMissingDays(Long carId, LocalDate from, LocalDate to) {
+        // committed on its own, so the booking transaction only takes day locks in date order
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insertDaysTransaction.executeWithoutResult(status -> carBookedDayRepository
+                        .insertMissingDays(carId, from, to));
+                return;
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt == MAX_INSERT_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void checkPeriod(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidRentalPeriodException("Return date " + to
+                    + " must be after rental date " + from);
+        }
+    }
+}
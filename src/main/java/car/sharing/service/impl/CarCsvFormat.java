@@ -0,0 +1,146 @@
+package car.sharing.service.impl;
+
+import car.sharing.dto.car.CarDto;
+import car.sharing.dto.car.CreateCarRequestDto;
+import car.sharing.model.Car;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+final class CarCsvFormat {
+    static final String EXPORT_HEADER = "id,model,brand,carFrame,inventory,dailyFee";
+    private static final List<String> IMPORT_COLUMNS = List.of(
+            "model", "brand", "carFrame", "inventory", "dailyFee");
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private final Map<String, Integer> columnIndexes;
+    private final int columnCount;
+
+    private CarCsvFormat(Map<String, Integer> columnIndexes, int columnCount) {
+        this.columnIndexes = columnIndexes;
+        this.columnCount = columnCount;
+    }
+
+    static CarCsvFormat fromHeader(String header) {
+        List<String> columns = split(header);
+        Map<String, Integer> columnIndexes = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            columnIndexes.put(columns.get(i).strip(), i);
+        }
+        List<String> missing = IMPORT_COLUMNS.stream()
+                .filter(column -> !columnIndexes.containsKey(column))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing columns: " + String.join(", ", missing));
+        }
+        return new CarCsvFormat(columnIndexes, columns.size());
+    }
+
+    static String toRow(CarDto car) {
+        return car.id() + "," + quote(car.model()) + "," + quote(car.brand()) + ","
+                + car.carFrame() + "," + car.inventory() + ","
+                + (car.dailyFee() == null ? "" : car.dailyFee().toPlainString());
+    }
+
+    CreateCarRequestDto parse(String line) {
+        List<String> values = split(line);
+        if (values.size() != columnCount) {
+            throw new IllegalArgumentException("Expected " + columnCount
+                    + " columns but found " + values.size());
+        }
+        return new CreateCarRequestDto(
+                value(values, "model"),
+                value(values, "brand"),
+                parseCarFrame(value(values, "carFrame")),
+                parseInventory(value(values, "inventory")),
+                parseDailyFee(value(values, "dailyFee")));
+    }
+
+    static boolean isOpenRecord(String record) {
+        return record.chars().filter(current -> current == QUOTE).count() % 2 != 0;
+    }
+
+    private String value(List<String> values, String column) {
+        String value = values.get(columnIndexes.get(column)).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    private Car.CarFrame parseCarFrame(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Car.CarFrame.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("carFrame: must be one of "
+                    + Arrays.stream(Car.CarFrame.values())
+                            .map(Enum::name)
+                            .collect(Collectors.joining(", ")));
+        }
+    }
+
+    private int parseInventory(String value) {
+        try {
+            return value == null ? 0 : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("inventory: must be a whole number");
+        }
+    }
+
+    private BigDecimal parseDailyFee(String value) {
+        try {
+            return value == null ? null : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("dailyFee: must be a number");
+        }
+    }
+
+    private static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (i < line.length()) {
+            char current = line.charAt(i++);
+            if (quoted && current == QUOTE) {
+                if (i < line.length() && line.charAt(i) == QUOTE) {
+                    value.append(QUOTE);
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (quoted) {
+                value.append(current);
+            } else if (current == QUOTE) {
+                quoted = true;
+            } else if (current == SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(current);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(SEPARATOR) < 0 && value.indexOf(QUOTE) < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return QUOTE + value.replace("\"", "\"\"") + QUOTE;
+    }
+}
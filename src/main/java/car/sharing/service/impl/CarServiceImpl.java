@@ -1,17 +1,33 @@
 package car.sharing.service.impl;
 
+import car.sharing.config.CacheConfig;
+import car.sharing.dto.car.CarCursor;
 import car.sharing.dto.car.CarDto;
+import car.sharing.dto.car.CarScrollParametersDto;
 import car.sharing.dto.car.CarSearchParametersDto;
+import car.sharing.dto.car.CarSortOrder;
 import car.sharing.dto.car.CreateCarRequestDto;
+import car.sharing.dto.scroll.ScrollResponseDto;
 import car.sharing.exception.EntityNotFoundException;
+import car.sharing.exception.InvalidCursorException;
 import car.sharing.mapper.CarMapper;
 import car.sharing.model.Car;
+import car.sharing.repository.CursorCodec;
 import car.sharing.repository.car.CarRepository;
 import car.sharing.repository.car.CarSpecificationBuilder;
 import car.sharing.service.CarService;
+import car.sharing.service.event.CarAvailabilityChangedEvent;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,19 +35,32 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 @Service
 public class CarServiceImpl implements CarService {
+    private static final int DEFAULT_SCROLL_SIZE = 20;
+    private static final String ID_FIELD = "id";
+    private static final String DAILY_FEE_FIELD = "dailyFee";
+
     private final CarRepository carRepository;
     private final CarMapper carMapper;
     private final CarSpecificationBuilder specificationBuilder;
+    private final CursorCodec cursorCodec;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.CAR_PAGES_CACHE, CacheConfig.CAR_SEARCHES_CACHE},
+            allEntries = true)
     public CarDto createCar(CreateCarRequestDto requestDto) {
-        Car car = carMapper.toModel(requestDto);
-        return carMapper.toDto(carRepository.save(car));
+        Car car = carRepository.save(carMapper.toModel(requestDto));
+        eventPublisher.publishEvent(new CarAvailabilityChangedEvent(car.getId()));
+        return carMapper.toDto(car);
     }
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.CAR_PAGES_CACHE,
+                    CacheConfig.CAR_SEARCHES_CACHE}, allEntries = true)})
     public CarDto updateCarById(Long id, CreateCarRequestDto requestDto) {
         Car car = carRepository.findById(id).orElseThrow(()
                 -> new EntityNotFoundException("Can't find a car by id: " + id));
@@ -41,17 +70,25 @@ public class CarServiceImpl implements CarService {
         car.setCarFrame(requestDto.carFrame());
         car.setInventory(requestDto.inventory());
         car.setDailyFee(requestDto.dailyFee());
-        return carMapper.toDto(carRepository.save(car));
+        CarDto carDto = carMapper.toDto(carRepository.save(car));
+        eventPublisher.publishEvent(new CarAvailabilityChangedEvent(id));
+        return carDto;
     }
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.CAR_PAGES_CACHE,
+                    CacheConfig.CAR_SEARCHES_CACHE}, allEntries = true)})
     public void deleteCarById(Long id) {
         carRepository.deleteById(id);
+        eventPublisher.publishEvent(new CarAvailabilityChangedEvent(id));
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CARS_CACHE, key = "#carId")
     public CarDto findCarById(Long carId) {
         Car car = carRepository.findById(carId)
                 .orElseThrow(() -> new EntityNotFoundException(
@@ -61,6 +98,7 @@ public class CarServiceImpl implements CarService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CAR_PAGES_CACHE, key = "#pageable")
     public List<CarDto> findAllCars(Pageable pageable) {
         return carRepository.findAll(pageable)
                 .stream()
@@ -70,6 +108,8 @@ public class CarServiceImpl implements CarService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CAR_SEARCHES_CACHE,
+            keyGenerator = CacheConfig.CAR_SEARCH_KEY_GENERATOR)
     public List<CarDto> search(CarSearchParametersDto params) {
         Specification<Car> carSpecification = specificationBuilder.build(params);
         return carRepository.findAll(carSpecification)
@@ -77,4 +117,63 @@ public class CarServiceImpl implements CarService {
                 .map(carMapper::toDto)
                 .toList();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ScrollResponseDto<CarDto> scroll(CarSearchParametersDto params,
+                                            CarScrollParametersDto scrollParameters) {
+        CarCursor cursor = scrollParameters.cursor() == null ? null
+                : decodeCursor(scrollParameters.cursor());
+        CarSortOrder sortOrder = getSortOrder(cursor, scrollParameters);
+        int size = scrollParameters.size() == null ? DEFAULT_SCROLL_SIZE
+                : scrollParameters.size();
+
+        Window<Car> window = carRepository.findBy(specificationBuilder.build(params),
+                query -> query.sortBy(getSort(sortOrder))
+                        .limit(size)
+                        .scroll(getScrollPosition(cursor)));
+        List<CarDto> cars = window.map(carMapper::toDto).getContent();
+        return new ScrollResponseDto<>(cars, window.hasNext()
+                ? getNextCursor(sortOrder, window.getContent().get(window.size() - 1))
+                : null);
+    }
+
+    private CarCursor decodeCursor(String encodedCursor) {
+        CarCursor cursor = cursorCodec.decode(encodedCursor, CarCursor.class);
+        if (cursor == null || cursor.sort() == null
+                || cursor.id() == null || cursor.dailyFee() == null) {
+            throw new InvalidCursorException("Invalid cursor: " + encodedCursor);
+        }
+        return cursor;
+    }
+
+    private CarSortOrder getSortOrder(CarCursor cursor, CarScrollParametersDto parameters) {
+        if (cursor != null) {
+            return cursor.sort();
+        }
+        return parameters.sort() == null ? CarSortOrder.ID : parameters.sort();
+    }
+
+    private Sort getSort(CarSortOrder sortOrder) {
+        return switch (sortOrder) {
+            case DAILY_FEE -> Sort.by(DAILY_FEE_FIELD, ID_FIELD);
+            default -> Sort.by(ID_FIELD);
+        };
+    }
+
+    private ScrollPosition getScrollPosition(CarCursor cursor) {
+        if (cursor == null) {
+            return ScrollPosition.keyset();
+        }
+        return switch (cursor.sort()) {
+            case DAILY_FEE -> ScrollPosition.forward(Map.of(
+                    DAILY_FEE_FIELD, cursor.dailyFee(), ID_FIELD, cursor.id()));
+            default -> ScrollPosition.forward(Map.of(ID_FIELD, cursor.id()));
+        };
+    }
+
+    private String getNextCursor(CarSortOrder sortOrder, Car lastCar) {
+        return cursorCodec.encode(new CarCursor(sortOrder, lastCar.getId(),
+                lastCar.getDailyFee()));
+    }
 }
@@ -0,0 +1,187 @@
+package car.sharing.service.impl;
+
+import car.sharing.config.CacheConfig;
+import car.sharing.dto.car.CarDto;
+import car.sharing.dto.car.CarFileFormat;
+import car.sharing.dto.car.CarImportErrorDto;
+import car.sharing.dto.car.CarImportResultDto;
+import car.sharing.dto.car.CreateCarRequestDto;
+import car.sharing.mapper.CarMapper;
+import car.sharing.model.Car;
+import car.sharing.repository.car.CarRepository;
+import car.sharing.service.CarTransferService;
+import car.sharing.service.event.CarAvailabilityChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class CarTransferServiceImpl implements CarTransferService {
+    private final CarRepository carRepository;
+    private final CarMapper carMapper;
+    private final Validator validator;
+    private final ObjectReader carReader;
+    private final ObjectWriter carWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public CarTransferServiceImpl(CarRepository carRepository, CarMapper carMapper,
+                                  Validator validator, ObjectMapper objectMapper,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${car.import.batch-size:1000}") int batchSize,
+                                  @Value("${car.import.max-reported-errors:100}")
+                                  int maxReportedErrors) {
+        this.carRepository = carRepository;
+        this.carMapper = carMapper;
+        this.validator = validator;
+        this.carReader = objectMapper.readerFor(CreateCarRequestDto.class);
+        this.carWriter = objectMapper.writerFor(CarDto.class);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.CAR_PAGES_CACHE, CacheConfig.CAR_SEARCHES_CACHE},
+            allEntries = true)
+    public CarImportResultDto importCars(CarFileFormat format, InputStream inputStream) {
+        ImportProgress progress = new ImportProgress();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            CarCsvFormat csvFormat = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long recordLineNumber = ++lineNumber;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == CarFileFormat.CSV) {
+                    // a quoted value may hold line breaks, so the record goes on to the next line
+                    String nextLine;
+                    while (CarCsvFormat.isOpenRecord(line)
+                            && (nextLine = reader.readLine()) != null) {
+                        lineNumber++;
+                        line = line + '\n' + nextLine;
+                    }
+                }
+                if (format == CarFileFormat.CSV && csvFormat == null) {
+                    try {
+                        csvFormat = CarCsvFormat.fromHeader(line);
+                    } catch (IllegalArgumentException e) {
+                        progress.reject(recordLineNumber, e.getMessage());
+                        break;
+                    }
+                    continue;
+                }
+                importLine(format, csvFormat, line, recordLineNumber, progress);
+            }
+            flush(progress);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        eventPublisher.publishEvent(CarAvailabilityChangedEvent.allCars());
+        return new CarImportResultDto(progress.imported, progress.rejected, progress.errors);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCars(CarFileFormat format, OutputStream outputStream) {
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        try (Stream<Car> cars = carRepository.streamAll()) {
+            if (format == CarFileFormat.CSV) {
+                writer.write(CarCsvFormat.EXPORT_HEADER);
+                writer.write('\n');
+            }
+            for (Car car : (Iterable<Car>) cars::iterator) {
+                CarDto carDto = carMapper.toDto(car);
+                writer.write(format == CarFileFormat.CSV
+                        ? CarCsvFormat.toRow(carDto) : carWriter.writeValueAsString(carDto));
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void importLine(CarFileFormat format, CarCsvFormat csvFormat, String line,
+                            long lineNumber, ImportProgress progress) {
+        CreateCarRequestDto requestDto;
+        try {
+            requestDto = format == CarFileFormat.CSV
+                    ? csvFormat.parse(line) : carReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            progress.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            return;
+        } catch (IllegalArgumentException e) {
+            progress.reject(lineNumber, e.getMessage());
+            return;
+        }
+        if (requestDto == null) {
+            progress.reject(lineNumber, "Row is empty");
+            return;
+        }
+        Set<ConstraintViolation<CreateCarRequestDto>> violations =
+                validator.validate(requestDto);
+        if (!violations.isEmpty()) {
+            progress.reject(lineNumber, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": "
+                            + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return;
+        }
+        progress.batch.add(carMapper.toModel(requestDto));
+        if (progress.batch.size() >= batchSize) {
+            flush(progress);
+        }
+    }
+
+    private void flush(ImportProgress progress) {
+        if (!progress.batch.isEmpty()) {
+            carRepository.insertAll(progress.batch);
+            progress.imported += progress.batch.size();
+            progress.batch.clear();
+        }
+    }
+
+    private class ImportProgress {
+        private final List<Car> batch = new ArrayList<>(batchSize);
+        private final List<CarImportErrorDto> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        private void reject(long lineNumber, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new CarImportErrorDto(lineNumber, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package car.sharing.service.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+public class CircuitBreaker {
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean trialCallInFlight;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, Clock.systemUTC());
+    }
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        if (openedAt == null) {
+            return true;
+        }
+        if (clock.instant().isBefore(openedAt.plus(openDuration)) || trialCallInFlight) {
+            return false;
+        }
+        trialCallInFlight = true;
+        return true;
+    }
+
+    public synchronized void releasePermission() {
+        trialCallInFlight = false;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        openedAt = null;
+        trialCallInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        trialCallInFlight = false;
+        if (openedAt != null || consecutiveFailures >= failureThreshold) {
+            openedAt = clock.instant();
+        }
+    }
+
+    public synchronized State getState() {
+        if (openedAt == null) {
+            return State.CLOSED;
+        }
+        return clock.instant().isBefore(openedAt.plus(openDuration))
+                ? State.OPEN : State.HALF_OPEN;
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,72 @@
+package car.sharing.service.impl;
+
+import car.sharing.config.StripeConfig;
+import car.sharing.dto.payment.internal.DescriptionForStripeDto;
+import car.sharing.dto.payment.internal.ProviderSessionDto;
+import car.sharing.exception.PaymentProviderUnavailableException;
+import car.sharing.service.PaymentProvider;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(name = StripeConfig.PAYMENT_PROVIDER_PROPERTY,
+        havingValue = LocalPaymentProvider.NAME)
+public class LocalPaymentProvider implements PaymentProvider {
+    public static final String NAME = "local";
+    private static final String SESSION_PREFIX = "cs_local_";
+    private static final Duration SESSION_LIFETIME = Duration.ofHours(24);
+    private static final int FAILURE_BUCKETS = 10_000;
+
+    private final Executor delayedExecutor;
+    private final int failureBuckets;
+    private final long seed;
+    private final String checkoutUrl;
+
+    public LocalPaymentProvider(
+            @Value("${payment.provider.local.latency:0ms}") Duration latency,
+            @Value("${payment.provider.local.failure-rate:0}") double failureRate,
+            @Value("${payment.provider.local.seed:0}") long seed,
+            @Value("${payment.provider.local.checkout-url:http://localhost/checkout/}")
+            String checkoutUrl) {
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException(
+                    "Failure rate must be between 0 and 1, but was " + failureRate);
+        }
+        this.delayedExecutor = CompletableFuture.delayedExecutor(
+                latency.toNanos(), TimeUnit.NANOSECONDS);
+        this.failureBuckets = (int) Math.round(failureRate * FAILURE_BUCKETS);
+        this.seed = seed;
+        this.checkoutUrl = checkoutUrl;
+    }
+
+    @Override
+    public CompletableFuture<ProviderSessionDto> createSession(
+            DescriptionForStripeDto description, String idempotencyKey) {
+        // the same key always maps to the same session and outcome, like a replayed request
+        UUID sessionKey = UUID.nameUUIDFromBytes((seed + ":" + idempotencyKey)
+                .getBytes(StandardCharsets.UTF_8));
+        return CompletableFuture.supplyAsync(() -> {
+            if (Math.floorMod(sessionKey.hashCode(), FAILURE_BUCKETS) < failureBuckets) {
+                throw new PaymentProviderUnavailableException(
+                        "Injected payment provider failure for key: " + idempotencyKey);
+            }
+            String sessionId = SESSION_PREFIX + sessionKey.toString().replace("-", "");
+            return new ProviderSessionDto(sessionId, checkoutUrl + sessionId,
+                    Instant.now().plus(SESSION_LIFETIME));
+        }, delayedExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> expireSession(String sessionId) {
+        // nothing can pay a local session, so it is always expired
+        return CompletableFuture.supplyAsync(() -> true, delayedExecutor);
+    }
+}
@@ -1,19 +1,17 @@
 package car.sharing.service.impl;
 
 import car.sharing.service.NotificationService;
-import car.sharing.telegram.TelegramBot;
+import car.sharing.telegram.NotificationDispatcher;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 @RequiredArgsConstructor
 @Service
 public class NotificationServiceImpl implements NotificationService {
-    private final TelegramBot telegramBot;
+    private final NotificationDispatcher notificationDispatcher;
 
-    @Async
     @Override
     public void sendNotification(String message, Long telegramId) {
-        telegramBot.sendMessageToUser(message, telegramId);
+        notificationDispatcher.dispatch(message, telegramId);
     }
 }
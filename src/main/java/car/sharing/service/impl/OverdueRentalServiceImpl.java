@@ -0,0 +1,158 @@
+package car.sharing.service.impl;
+
+import car.sharing.model.Rental;
+import car.sharing.model.ScheduledJob;
+import car.sharing.repository.job.ScheduledJobRepository;
+import car.sharing.repository.rental.OverdueRentalRepository;
+import car.sharing.repository.rental.RentalRepository;
+import car.sharing.service.NotificationService;
+import car.sharing.service.OverdueRentalService;
+import car.sharing.service.pricing.PricingEngine;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Service
+public class OverdueRentalServiceImpl implements OverdueRentalService {
+    public static final String JOB_NAME = "overdue-rentals";
+
+    private final RentalRepository rentalRepository;
+    private final OverdueRentalRepository overdueRentalRepository;
+    private final ScheduledJobRepository scheduledJobRepository;
+    private final NotificationService notificationService;
+    private final PricingEngine pricingEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final String leaseOwner = getHostName() + "-" + UUID.randomUUID();
+    private final int batchSize;
+    private final long leaseSeconds;
+
+    public OverdueRentalServiceImpl(RentalRepository rentalRepository,
+                                    OverdueRentalRepository overdueRentalRepository,
+                                    ScheduledJobRepository scheduledJobRepository,
+                                    NotificationService notificationService,
+                                    PricingEngine pricingEngine,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${rental.overdue.batch-size:500}") int batchSize,
+                                    @Value("${rental.overdue.lease-duration:5m}")
+                                    Duration leaseDuration) {
+        this.rentalRepository = rentalRepository;
+        this.overdueRentalRepository = overdueRentalRepository;
+        this.scheduledJobRepository = scheduledJobRepository;
+        this.notificationService = notificationService;
+        this.pricingEngine = pricingEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.leaseSeconds = leaseDuration.toSeconds();
+    }
+
+    @Scheduled(fixedDelayString = "${rental.overdue.check-interval:1h}",
+            initialDelayString = "${rental.overdue.initial-delay:1m}")
+    public void scheduledDetection() {
+        detectOverdueRentals();
+    }
+
+    @Override
+    public int detectOverdueRentals() {
+        if (!acquireLease()) {
+            log.debug("Overdue rentals are checked by another node");
+            return 0;
+        }
+        LocalDate today = LocalDate.now();
+        int detected = 0;
+        try {
+            OverdueBatch batch;
+            do {
+                batch = transactionTemplate.execute(status -> processNextBatch(today));
+                batch.notifications().forEach(notification -> notificationService
+                        .sendNotification(notification.message(), notification.telegramId()));
+                detected += batch.detected();
+            } while (batch.scanned() == batchSize);
+        } catch (LeaseLostException e) {
+            log.warn("Lost the overdue rentals lease, the next run will continue the scan");
+        } finally {
+            releaseLease();
+        }
+        return detected;
+    }
+
+    private OverdueBatch processNextBatch(LocalDate today) {
+        ScheduledJob job = scheduledJobRepository.findById(JOB_NAME).orElseThrow();
+        List<Rental> rentals = rentalRepository.findOverdueAfter(today, job.getWatermarkDate(),
+                job.getWatermarkId(), Limit.of(batchSize));
+        List<OverdueNotification> notifications = new ArrayList<>();
+        int detected = 0;
+        for (Rental rental : rentals) {
+            BigDecimal amountDue = pricingEngine.price(rental, today);
+            if (overdueRentalRepository.insertIfAbsent(rental.getId(), today, amountDue) == 0) {
+                continue;
+            }
+            detected++;
+            Long telegramId = rental.getUser().getTelegramId();
+            if (telegramId != null) {
+                notifications.add(new OverdueNotification(telegramId,
+                        createMessage(rental, amountDue, today)));
+            }
+        }
+        if (!rentals.isEmpty()) {
+            Rental last = rentals.get(rentals.size() - 1);
+            if (scheduledJobRepository.advanceWatermark(JOB_NAME, leaseOwner,
+                    last.getReturnDate(), last.getId(), leaseSeconds) == 0) {
+                throw new LeaseLostException();
+            }
+        }
+        return new OverdueBatch(rentals.size(), detected, notifications);
+    }
+
+    private String createMessage(Rental rental, BigDecimal amountDue, LocalDate detectedOn) {
+        return "Rental #" + rental.getId() + " of " + rental.getCar().getBrand() + " "
+                + rental.getCar().getModel() + " was due on " + rental.getReturnDate()
+                + ". Please return the car, amount due as of " + detectedOn + ": " + amountDue;
+    }
+
+    private boolean acquireLease() {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            scheduledJobRepository.createIfMissing(JOB_NAME, LocalDate.EPOCH);
+            return scheduledJobRepository.acquireLease(JOB_NAME, leaseOwner, leaseSeconds) == 1;
+        }));
+    }
+
+    private void releaseLease() {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    scheduledJobRepository.releaseLease(JOB_NAME, leaseOwner));
+        } catch (RuntimeException e) {
+            log.warn("Can`t release the overdue rentals lease, it will expire on its own", e);
+        }
+    }
+
+    private static String getHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    private record OverdueNotification(Long telegramId, String message) {
+    }
+
+    private record OverdueBatch(int scanned, int detected,
+                                List<OverdueNotification> notifications) {
+    }
+
+    private static class LeaseLostException extends RuntimeException {
+    }
+}
@@ -1,66 +1,113 @@
 package car.sharing.service.impl;
 
+import car.sharing.config.PaymentConfig;
 import car.sharing.dto.payment.external.PaymentResponseDto;
 import car.sharing.dto.payment.external.PaymentResponseForTelegram;
+import car.sharing.dto.payment.external.PaymentSearchParametersDto;
 import car.sharing.dto.payment.internal.DescriptionForStripeDto;
+import car.sharing.dto.payment.internal.ProviderSessionDto;
 import car.sharing.dto.payment.internal.RequestPaymentToStripeDto;
 import car.sharing.exception.EntityNotFoundException;
 import car.sharing.mapper.PaymentMapper;
-import car.sharing.model.Car;
 import car.sharing.model.Payment;
 import car.sharing.model.Rental;
 import car.sharing.model.User;
-import car.sharing.repository.car.CarRepository;
 import car.sharing.repository.payment.PaymentRepository;
+import car.sharing.repository.rental.RentalPaymentDetails;
 import car.sharing.repository.rental.RentalRepository;
+import car.sharing.service.PaymentProvider;
 import car.sharing.service.PaymentService;
-import car.sharing.service.strategy.PaymentAmountService;
-import car.sharing.service.strategy.PaymentStrategy;
-import com.stripe.model.checkout.Session;
+import car.sharing.service.pricing.PricingEngine;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Slf4j
-@RequiredArgsConstructor
 @Service
 public class PaymentServiceImpl implements PaymentService {
+    private static final Duration SESSION_EXPIRY_MARGIN = Duration.ofMinutes(5);
+
     private final PaymentRepository paymentRepository;
     private final PaymentMapper paymentMapper;
     private final RentalRepository rentalRepository;
-    private final CarRepository carRepository;
-    private final StripeService stripeService;
-    private final PaymentStrategy paymentStrategy;
+    private final PaymentProvider paymentProvider;
+    private final PricingEngine pricingEngine;
+    private final Executor persistenceExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentMap<PaymentSessionKey, CompletableFuture<PaymentResponseDto>>
+            inFlightSessions = new ConcurrentHashMap<>();
+
+    public PaymentServiceImpl(PaymentRepository paymentRepository,
+                              PaymentMapper paymentMapper,
+                              RentalRepository rentalRepository,
+                              PaymentProvider paymentProvider,
+                              PricingEngine pricingEngine,
+                              @Qualifier(PaymentConfig.PAYMENT_PERSISTENCE_EXECUTOR)
+                              Executor persistenceExecutor,
+                              PlatformTransactionManager transactionManager) {
+        this.paymentRepository = paymentRepository;
+        this.paymentMapper = paymentMapper;
+        this.rentalRepository = rentalRepository;
+        this.paymentProvider = paymentProvider;
+        this.pricingEngine = pricingEngine;
+        this.persistenceExecutor = persistenceExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     @Override
     @Transactional(readOnly = true)
-    public List<PaymentResponseDto> getPayments(Long userId) {
-        List<Rental> userRentals = rentalRepository.findAllByUserId(userId);
-        List<Payment> paymentsByUser = paymentRepository.findAllByRentalsId(
-                userRentals.stream().map(Rental::getId).toList());
-        return paymentsByUser.stream().map(paymentMapper::toDto).toList();
+    public List<PaymentResponseDto> getPayments(Long userId, PaymentSearchParametersDto params,
+                                                Pageable pageable) {
+        return paymentRepository.findAllByUserId(userId, params.status(), params.type(),
+                pageable);
     }
 
     @Override
-    public PaymentResponseDto createPaymentSession(RequestPaymentToStripeDto stripeDto) {
-        Rental rental = getRentalById(stripeDto.rentalId());
-        PaymentAmountService paymentAmount = paymentStrategy.getPaymentAmount(rental);
-        BigDecimal totalPrice = paymentAmount.calculateTotalAmountByRentalDays(
-                rental.getCar().getDailyFee(), rental);
-
-        DescriptionForStripeDto descriptionForSession = createDescriptionForSession(
-                totalPrice, rental);
-        Session stripeSession = stripeService.createStripeSession(descriptionForSession);
-        Payment payment = savePayment(totalPrice, stripeSession, rental, stripeDto);
-        return paymentMapper.toDto(payment);
+    public CompletableFuture<PaymentResponseDto> createPaymentSession(
+            RequestPaymentToStripeDto stripeDto) {
+        PaymentSessionKey key = new PaymentSessionKey(stripeDto.rentalId(), stripeDto.type());
+        CompletableFuture<PaymentResponseDto> created = new CompletableFuture<>();
+        CompletableFuture<PaymentResponseDto> inFlight = inFlightSessions.putIfAbsent(
+                key, created);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        try {
+            startPaymentSession(stripeDto).whenComplete((payment, error) -> {
+                inFlightSessions.remove(key, created);
+                if (error == null) {
+                    created.complete(payment);
+                } else {
+                    created.completeExceptionally(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlightSessions.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+        return created;
     }
 
     @Override
+    @Transactional
     public PaymentResponseForTelegram successPayment(String sessionId) {
         Payment payment = getSessionById(sessionId);
         User user = payment.getRental().getUser();
@@ -70,6 +117,7 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
+    @Transactional
     public PaymentResponseForTelegram cancelPayment(String sessionId) {
         Payment payment = getSessionById(sessionId);
         User user = payment.getRental().getUser();
@@ -78,40 +126,130 @@ public class PaymentServiceImpl implements PaymentService {
         return paymentMapper.toTelegramDto(user, sessionId);
     }
 
+    private CompletableFuture<PaymentResponseDto> startPaymentSession(
+            RequestPaymentToStripeDto stripeDto) {
+        RentalPaymentDetails paymentDetails = getPaymentDetails(stripeDto.rentalId());
+        Rental rental = paymentDetails.rental();
+        BigDecimal totalPrice = pricingEngine.price(rental);
+
+        List<Payment> typePayments = paymentDetails.payments().stream()
+                .filter(payment -> payment.getType() == stripeDto.type())
+                .toList();
+        List<Payment> pendingPayments = typePayments.stream()
+                .filter(payment -> payment.getStatus() == Payment.Status.PENDING)
+                .toList();
+        // Stripe replays a key for 24h, so each attempt after a closed session gets its own key
+        String idempotencyKey = getIdempotencyKey(rental, stripeDto.type(),
+                typePayments.size(), totalPrice);
+        Optional<Payment> reusablePayment = pendingPayments.stream()
+                .filter(payment -> isReusable(payment, totalPrice))
+                .findFirst();
+        if (reusablePayment.isPresent()) {
+            return CompletableFuture.completedFuture(
+                    paymentMapper.toDto(reusablePayment.get()));
+        }
+        if (pendingPayments.isEmpty()) {
+            return createSession(totalPrice, rental, stripeDto, idempotencyKey);
+        }
+        // a superseded session must be closed at the provider first, or it stays payable
+        return expireSessions(pendingPayments).thenCompose(completedPayment -> completedPayment
+                .map(payment -> CompletableFuture.completedFuture(paymentMapper.toDto(payment)))
+                .orElseGet(() -> createSession(totalPrice, rental, stripeDto, idempotencyKey)));
+    }
+
+    private CompletableFuture<PaymentResponseDto> createSession(
+            BigDecimal totalPrice, Rental rental, RequestPaymentToStripeDto stripeDto,
+            String idempotencyKey) {
+        DescriptionForStripeDto descriptionForSession = createDescriptionForSession(
+                totalPrice, rental);
+        return paymentProvider.createSession(descriptionForSession, idempotencyKey)
+                // keep database work off the provider threads
+                .thenApplyAsync(providerSession -> paymentMapper.toDto(
+                        savePayment(totalPrice, providerSession, rental, stripeDto)),
+                        persistenceExecutor);
+    }
+
+    private CompletableFuture<Optional<Payment>> expireSessions(List<Payment> payments) {
+        List<CompletableFuture<Boolean>> expirations = payments.stream()
+                .map(this::expireSession)
+                .toList();
+        return CompletableFuture.allOf(expirations.toArray(CompletableFuture[]::new))
+                .thenApplyAsync(ignored -> {
+                    List<Long> expiredIds = new ArrayList<>();
+                    Payment completedPayment = null;
+                    for (int i = 0; i < payments.size(); i++) {
+                        if (expirations.get(i).join()) {
+                            expiredIds.add(payments.get(i).getId());
+                        } else {
+                            completedPayment = payments.get(i);
+                        }
+                    }
+                    if (!expiredIds.isEmpty()) {
+                        paymentRepository.updateStatus(expiredIds, Payment.Status.PENDING,
+                                Payment.Status.EXPIRED);
+                    }
+                    // the webhook marks a completed session as paid, so no new one is needed
+                    return Optional.ofNullable(completedPayment);
+                }, persistenceExecutor);
+    }
+
+    private CompletableFuture<Boolean> expireSession(Payment payment) {
+        if (payment.getSessionExpiresAt() != null
+                && !payment.getSessionExpiresAt().isAfter(Instant.now())) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return paymentProvider.expireSession(payment.getSessionId());
+    }
+
+    private boolean isReusable(Payment payment, BigDecimal totalPrice) {
+        return payment.getTotalPrice().compareTo(totalPrice) == 0
+                && payment.getSessionExpiresAt() != null
+                && payment.getSessionExpiresAt().isAfter(
+                        Instant.now().plus(SESSION_EXPIRY_MARGIN));
+    }
+
+    private String getIdempotencyKey(Rental rental, Payment.Type type, int attempt,
+                                     BigDecimal totalPrice) {
+        return "rental-" + rental.getId() + "-" + type + "-" + attempt + "-"
+                + totalPrice.movePointRight(2).toBigInteger();
+    }
+
     private DescriptionForStripeDto createDescriptionForSession(
             BigDecimal totalPrice, Rental rental) {
         DescriptionForStripeDto description = new DescriptionForStripeDto();
         description.setTotalAmount(totalPrice);
-        description.setName("Rental" + getCarById(rental.getCar().getId()).getModel()
-                + getCarById(rental.getCar().getId()).getBrand());
+        description.setName("Rental" + rental.getCar().getModel()
+                + rental.getCar().getBrand());
         description.setDescription("This is a session for car rentals payment");
         return description;
     }
 
-    private Payment savePayment(BigDecimal totalAmount, Session session, Rental rental,
-                                    RequestPaymentToStripeDto stripeDto) {
+    private Payment savePayment(BigDecimal totalAmount, ProviderSessionDto session,
+                                Rental rental, RequestPaymentToStripeDto stripeDto) {
         Payment payment = new Payment();
         payment.setType(stripeDto.type());
         payment.setRental(rental);
-        payment.setSessionId(session.getId());
+        payment.setSessionId(session.id());
         payment.setTotalPrice(totalAmount);
+        payment.setSessionExpiresAt(session.expiresAt());
         try {
-            payment.setSessionUrl(new URL(session.getUrl()));
+            payment.setSessionUrl(new URL(session.url()));
         } catch (MalformedURLException e) {
-            throw new RuntimeException("Invalid session URL: " + session.getUrl(), e);
+            throw new RuntimeException("Invalid session URL: " + session.url(), e);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> paymentRepository.save(payment));
+        } catch (DataIntegrityViolationException e) {
+            // another node stored the pending payment for this rental and type first
+            return paymentRepository.findByRentalIdAndTypeAndStatus(rental.getId(),
+                            stripeDto.type(), Payment.Status.PENDING)
+                    .orElseThrow(() -> e);
         }
-        paymentRepository.save(payment);
         return payment;
     }
 
-    private Car getCarById(Long carId) {
-        return carRepository.findById(carId)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        "Can`t find a car by id: " + carId));
-    }
-
-    private Rental getRentalById(Long rentalId) {
-        return rentalRepository.findById(rentalId)
+    private RentalPaymentDetails getPaymentDetails(Long rentalId) {
+        return rentalRepository.findPaymentDetailsById(rentalId)
                 .orElseThrow(() -> new EntityNotFoundException(
                         "Can`t find a rental by id: " + rentalId));
     }
@@ -121,4 +259,7 @@ public class PaymentServiceImpl implements PaymentService {
                 .orElseThrow(() -> new EntityNotFoundException(
                         "Can`t find a session by id: " + sessionId));
     }
+
+    private record PaymentSessionKey(Long rentalId, Payment.Type type) {
+    }
 }
@@ -1,21 +1,40 @@
 package car.sharing.service.impl;
 
+import car.sharing.dto.rental.RentalCursor;
 import car.sharing.dto.rental.RentalRequestDto;
 import car.sharing.dto.rental.RentalResponseDto;
+import car.sharing.dto.rental.RentalReturnResultDto;
+import car.sharing.dto.rental.RentalReturnStatus;
+import car.sharing.dto.rental.RentalScrollParametersDto;
 import car.sharing.dto.rental.RentalSearchParametersDto;
+import car.sharing.dto.scroll.ScrollResponseDto;
 import car.sharing.exception.EntityNotFoundException;
+import car.sharing.exception.InvalidCursorException;
 import car.sharing.mapper.RentalMapper;
-import car.sharing.model.Car;
 import car.sharing.model.Rental;
 import car.sharing.model.User;
+import car.sharing.repository.CursorCodec;
 import car.sharing.repository.car.CarRepository;
 import car.sharing.repository.rental.RentalRepository;
 import car.sharing.repository.rental.RentalSpecificationBuilder;
 import car.sharing.repository.user.UserRepository;
+import car.sharing.service.CarAvailabilityService;
 import car.sharing.service.RentalService;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,35 +42,75 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
 public class RentalServiceImpl implements RentalService {
+    private static final int DEFAULT_SCROLL_SIZE = 20;
+    private static final String ID_FIELD = "id";
+    private static final Comparator<BookedPeriod> CALENDAR_ORDER = Comparator
+            .comparing(BookedPeriod::carId)
+            .thenComparing(BookedPeriod::from)
+            .thenComparing(BookedPeriod::to);
+
     private final RentalRepository rentalRepository;
     private final RentalMapper rentalMapper;
     private final CarRepository carRepository;
     private final UserRepository userRepository;
     private final RentalSpecificationBuilder specificationBuilder;
+    private final CursorCodec cursorCodec;
+    private final CarAvailabilityService carAvailabilityService;
 
     @Override
     @Transactional
     public RentalResponseDto createRental(RentalRequestDto requestDto, Long userId) {
         Rental rental = rentalMapper.toModel(requestDto);
         rental.setUser(getUserById(userId));
-        Car car = getCarById(requestDto.carId());
-        car.setInventory(car.getInventory() - 1);
-        rental.setCar(car);
-        carRepository.save(car);
+        // bookings only change the calendar, so cached CarDto reads need no eviction
+        carAvailabilityService.book(requestDto.carId(), requestDto.rentalDate(),
+                requestDto.returnDate());
+        rental.setCar(carRepository.getReferenceById(requestDto.carId()));
         rentalRepository.save(rental);
         return rentalMapper.toDto(rental);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<RentalResponseDto> search(RentalSearchParametersDto params) {
+    public List<RentalResponseDto> search(RentalSearchParametersDto params, Pageable pageable) {
         Specification<Rental> rentalSpecification = specificationBuilder.build(params);
-        return rentalRepository.findAll(rentalSpecification)
+        return rentalRepository.findAll(rentalSpecification, pageable)
                 .stream()
                 .map(rentalMapper::toDto)
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ScrollResponseDto<RentalResponseDto> scroll(RentalSearchParametersDto params,
+                                            RentalScrollParametersDto scrollParameters) {
+        ScrollPosition position = scrollParameters.cursor() == null
+                ? ScrollPosition.keyset()
+                : ScrollPosition.forward(Map.of(ID_FIELD,
+                        decodeCursor(scrollParameters.cursor()).id()));
+        int size = scrollParameters.size() == null ? DEFAULT_SCROLL_SIZE
+                : scrollParameters.size();
+
+        Window<Rental> window = rentalRepository.findBy(specificationBuilder.build(params),
+                query -> query.sortBy(Sort.by(ID_FIELD))
+                        .limit(size)
+                        .scroll(position));
+        List<RentalResponseDto> rentals = window.map(rentalMapper::toDto).getContent();
+        return new ScrollResponseDto<>(rentals, window.hasNext()
+                ? cursorCodec.encode(new RentalCursor(
+                        window.getContent().get(window.size() - 1).getId()))
+                : null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void stream(RentalSearchParametersDto params, Consumer<RentalResponseDto> consumer) {
+        try (Stream<Rental> rentals = rentalRepository.streamAll(
+                specificationBuilder.build(params))) {
+            rentals.map(rentalMapper::toDto).forEach(consumer);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public RentalResponseDto getRental(Long rentalId) {
@@ -62,15 +121,76 @@ public class RentalServiceImpl implements RentalService {
     @Transactional
     public RentalResponseDto actualReturnDate(Long rentalId) {
         Rental rental = getRentalById(rentalId);
-        rental.setActualReturnDate(LocalDate.now());
+        LocalDate today = LocalDate.now();
+        if (rental.isActive() && today.isAfter(rental.getReturnDate())) {
+            carAvailabilityService.extend(rental.getCar().getId(), rental.getReturnDate(),
+                    today, 1);
+        } else if (rental.isActive()) {
+            carAvailabilityService.release(rental.getCar().getId(),
+                    getReleaseFrom(rental, today), rental.getReturnDate());
+        }
+        rental.setActualReturnDate(today);
         rental.setActive(false);
-
-        Car car = rental.getCar();
-        car.setInventory(car.getInventory() + 1);
-        carRepository.save(car);
         return rentalMapper.toDto(rentalRepository.save(rental));
     }
 
+    @Override
+    @Transactional
+    public List<RentalReturnResultDto> returnRentals(List<Long> rentalIds) {
+        LocalDate today = LocalDate.now();
+        Map<Long, Rental> rentals = rentalRepository.findAllById(rentalIds)
+                .stream()
+                .collect(Collectors.toMap(Rental::getId, Function.identity()));
+        // positive units book overrun days, negative units release unused days
+        Map<BookedPeriod, Integer> calendarChanges = new TreeMap<>(CALENDAR_ORDER);
+        List<RentalReturnResultDto> results = new ArrayList<>(rentalIds.size());
+        for (Long rentalId : rentalIds) {
+            Rental rental = rentals.get(rentalId);
+            if (rental == null) {
+                results.add(new RentalReturnResultDto(rentalId,
+                        RentalReturnStatus.NOT_FOUND, null));
+                continue;
+            }
+            if (!rental.isActive()) {
+                results.add(new RentalReturnResultDto(rentalId,
+                        RentalReturnStatus.ALREADY_RETURNED, rentalMapper.toDto(rental)));
+                continue;
+            }
+            if (today.isAfter(rental.getReturnDate())) {
+                calendarChanges.merge(new BookedPeriod(rental.getCar().getId(),
+                        rental.getReturnDate(), today), 1, Integer::sum);
+            } else {
+                calendarChanges.merge(new BookedPeriod(rental.getCar().getId(),
+                        getReleaseFrom(rental, today), rental.getReturnDate()), -1, Integer::sum);
+            }
+            rental.setActualReturnDate(today);
+            rental.setActive(false);
+            results.add(new RentalReturnResultDto(rentalId,
+                    RentalReturnStatus.RETURNED, rentalMapper.toDto(rental)));
+        }
+        calendarChanges.forEach((period, units) -> {
+            if (units > 0) {
+                carAvailabilityService.extend(period.carId(), period.from(), period.to(), units);
+            } else {
+                carAvailabilityService.release(period.carId(), period.from(), period.to(),
+                        -units);
+            }
+        });
+        return results;
+    }
+
+    private LocalDate getReleaseFrom(Rental rental, LocalDate today) {
+        return today.isAfter(rental.getRentalDate()) ? today : rental.getRentalDate();
+    }
+
+    private RentalCursor decodeCursor(String encodedCursor) {
+        RentalCursor cursor = cursorCodec.decode(encodedCursor, RentalCursor.class);
+        if (cursor == null || cursor.id() == null) {
+            throw new InvalidCursorException("Invalid cursor: " + encodedCursor);
+        }
+        return cursor;
+    }
+
     private User getUserById(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException(
@@ -83,9 +203,6 @@ public class RentalServiceImpl implements RentalService {
                     "Can`t find a rental by id: " + id));
     }
 
-    private Car getCarById(Long carId) {
-        return carRepository.findById(carId)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        "Can`t find a car by id: " + carId));
+    private record BookedPeriod(Long carId, LocalDate from, LocalDate to) {
     }
 }
@@ -1,47 +1,165 @@
 package car.sharing.service.impl;
 
+import car.sharing.config.StripeConfig;
 import car.sharing.dto.payment.internal.DescriptionForStripeDto;
-import com.stripe.Stripe;
+import car.sharing.dto.payment.internal.ProviderSessionDto;
+import car.sharing.exception.PaymentProviderUnavailableException;
+import car.sharing.service.PaymentProvider;
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.InvalidRequestException;
+import com.stripe.exception.RateLimitException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.checkout.SessionCreateParams;
-import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 @Service
-public class StripeService {
+@ConditionalOnProperty(name = StripeConfig.PAYMENT_PROVIDER_PROPERTY,
+        havingValue = StripeConfig.STRIPE_PROVIDER, matchIfMissing = true)
+public class StripeService implements PaymentProvider {
     private static final Long DEFAULT_QUANTITY = 1L;
     private static final String DEFAULT_CURRENCY = "USD";
     private static final BigDecimal CENTS_AMOUNT = BigDecimal.valueOf(100);
+    private static final int SERVER_ERROR_STATUS = 500;
+    private static final String COMPLETE_SESSION_STATUS = "complete";
 
-    @Value("${stripe.secret.key}")
-    private String stripeSecretKey;
-    @Value("${stripe.success.url}")
-    private String successUrl;
-    @Value("${stripe.cancel.url}")
-    private String cancelUrl;
+    private final StripeClient stripeClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Executor executor;
+    private final String successUrl;
+    private final String cancelUrl;
 
-    @PostConstruct
-    public void init() {
-        Stripe.apiKey = stripeSecretKey;
+    public StripeService(StripeClient stripeClient,
+                         CircuitBreaker stripeCircuitBreaker,
+                         @Qualifier(StripeConfig.PAYMENT_PROVIDER_EXECUTOR) Executor executor,
+                         @Value("${stripe.success.url}") String successUrl,
+                         @Value("${stripe.cancel.url}") String cancelUrl) {
+        this.stripeClient = stripeClient;
+        this.circuitBreaker = stripeCircuitBreaker;
+        this.executor = executor;
+        this.successUrl = successUrl;
+        this.cancelUrl = cancelUrl;
     }
 
-    public Session createStripeSession(DescriptionForStripeDto stripeDto) {
+    @Override
+    public CompletableFuture<ProviderSessionDto> createSession(DescriptionForStripeDto stripeDto,
+                                                               String idempotencyKey) {
+        return submit(() -> createStripeSession(stripeDto, idempotencyKey));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> expireSession(String sessionId) {
+        return submit(() -> expireStripeSession(sessionId));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(new PaymentProviderUnavailableException(
+                    "Payment provider is unavailable, try again later"));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return call.get();
+                } finally {
+                    // a trial call that ended without an outcome must not keep the circuit open
+                    circuitBreaker.releasePermission();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.releasePermission();
+            return CompletableFuture.failedFuture(new PaymentProviderUnavailableException(
+                    "Too many payment requests in progress, try again later", e));
+        }
+    }
+
+    private ProviderSessionDto createStripeSession(DescriptionForStripeDto stripeDto,
+                                                   String idempotencyKey) {
+        SessionCreateParams params = SessionCreateParams.builder()
+                .setMode(SessionCreateParams.Mode.PAYMENT)
+                .setSuccessUrl(successUrl)
+                .setCancelUrl(cancelUrl)
+                .addLineItem(getLineItem(stripeDto))
+                .build();
+        RequestOptions options = RequestOptions.builder()
+                .setIdempotencyKey(idempotencyKey)
+                .build();
+        try {
+            Session session = stripeClient.checkout().sessions().create(params, options);
+            circuitBreaker.onSuccess();
+            return toProviderSession(session);
+        } catch (StripeException e) {
+            throw toProviderException("Can`t create a session", e);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw new RuntimeException("Can`t create a session: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean expireStripeSession(String sessionId) {
         try {
-            SessionCreateParams params = SessionCreateParams.builder()
-                    .setMode(SessionCreateParams.Mode.PAYMENT)
-                    .setSuccessUrl(successUrl)
-                    .setCancelUrl(cancelUrl)
-                    .addLineItem(getLineItem(stripeDto))
-                    .build();
-            return Session.create(params);
-        } catch (RuntimeException | StripeException e) {
-            throw new RuntimeException("Can`t create a session: " + e);
+            stripeClient.checkout().sessions().expire(sessionId);
+            circuitBreaker.onSuccess();
+            return true;
+        } catch (InvalidRequestException e) {
+            // only open sessions can be expired, so look at what the session turned into
+            return !COMPLETE_SESSION_STATUS.equals(getSessionStatus(sessionId));
+        } catch (StripeException e) {
+            throw toProviderException("Can`t expire the session " + sessionId, e);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw new RuntimeException("Can`t expire the session " + sessionId + ": "
+                    + e.getMessage(), e);
         }
     }
 
+    private String getSessionStatus(String sessionId) {
+        try {
+            String status = stripeClient.checkout().sessions().retrieve(sessionId).getStatus();
+            circuitBreaker.onSuccess();
+            return status;
+        } catch (StripeException e) {
+            throw toProviderException("Can`t retrieve the session " + sessionId, e);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw new RuntimeException("Can`t retrieve the session " + sessionId + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    private RuntimeException toProviderException(String message, StripeException e) {
+        if (isProviderFailure(e)) {
+            circuitBreaker.onFailure();
+            return new PaymentProviderUnavailableException(message + ": " + e.getMessage(), e);
+        }
+        circuitBreaker.onSuccess();
+        return new RuntimeException(message + ": " + e.getMessage(), e);
+    }
+
+    private ProviderSessionDto toProviderSession(Session session) {
+        Instant expiresAt = session.getExpiresAt() == null
+                ? null : Instant.ofEpochSecond(session.getExpiresAt());
+        return new ProviderSessionDto(session.getId(), session.getUrl(), expiresAt);
+    }
+
+    private boolean isProviderFailure(StripeException e) {
+        return e instanceof ApiConnectionException
+                || e instanceof RateLimitException
+                || e.getStatusCode() == null
+                || e.getStatusCode() >= SERVER_ERROR_STATUS;
+    }
+
     private SessionCreateParams.LineItem getLineItem(DescriptionForStripeDto stripeDto) {
         return SessionCreateParams.LineItem.builder()
                 .setQuantity(DEFAULT_QUANTITY)
@@ -0,0 +1,164 @@
+package car.sharing.service.impl;
+
+import car.sharing.exception.InvalidStripeEventException;
+import car.sharing.model.Payment;
+import car.sharing.model.StripeEvent;
+import car.sharing.repository.payment.PaymentRepository;
+import car.sharing.repository.payment.StripeEventRepository;
+import car.sharing.service.StripeWebhookService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.net.Webhook;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Service
+public class StripeWebhookServiceImpl implements StripeWebhookService {
+    private static final String SESSION_COMPLETED = "checkout.session.completed";
+    private static final Map<String, Payment.Status> PAYMENT_STATUSES = Map.of(
+            SESSION_COMPLETED, Payment.Status.PAID,
+            "checkout.session.async_payment_succeeded", Payment.Status.PAID,
+            "checkout.session.async_payment_failed", Payment.Status.CANCELED,
+            "checkout.session.expired", Payment.Status.EXPIRED);
+    private static final Set<String> PAID_SESSION_STATUSES = Set.of(
+            "paid", "no_payment_required");
+    // a paid session wins over everything else, so it is applied last
+    private static final Map<Payment.Status, Set<Payment.Status>> UPDATABLE_STATUSES = Map.of(
+            Payment.Status.EXPIRED, Set.of(Payment.Status.PENDING),
+            Payment.Status.CANCELED, Set.of(Payment.Status.PENDING),
+            Payment.Status.PAID, Set.of(Payment.Status.PENDING, Payment.Status.CANCELED,
+                    Payment.Status.EXPIRED));
+    private static final List<Payment.Status> APPLY_ORDER = List.of(
+            Payment.Status.EXPIRED, Payment.Status.CANCELED, Payment.Status.PAID);
+
+    private final StripeEventRepository stripeEventRepository;
+    private final PaymentRepository paymentRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final String webhookSecret;
+    private final long signatureTolerance;
+    private final int batchSize;
+    private final long retentionSeconds;
+
+    public StripeWebhookServiceImpl(StripeEventRepository stripeEventRepository,
+                                    PaymentRepository paymentRepository,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${stripe.webhook.secret:}") String webhookSecret,
+                                    @Value("${stripe.webhook.signature-tolerance:5m}")
+                                    Duration signatureTolerance,
+                                    @Value("${stripe.webhook.batch-size:500}") int batchSize,
+                                    @Value("${stripe.webhook.retention:7d}")
+                                    Duration retention) {
+        this.stripeEventRepository = stripeEventRepository;
+        this.paymentRepository = paymentRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.webhookSecret = webhookSecret;
+        this.signatureTolerance = signatureTolerance.toSeconds();
+        this.batchSize = batchSize;
+        this.retentionSeconds = retention.toSeconds();
+    }
+
+    @Override
+    public void receiveEvent(String payload, String signature) {
+        JsonNode event = parseVerifiedEvent(payload, signature);
+        String eventType = event.path("type").asText();
+        JsonNode session = event.path("data").path("object");
+        Payment.Status paymentStatus = PAYMENT_STATUSES.get(eventType);
+        if (paymentStatus == null || (SESSION_COMPLETED.equals(eventType)
+                && !PAID_SESSION_STATUSES.contains(session.path("payment_status").asText()))) {
+            log.debug("Ignoring Stripe event {} of type {}", event.path("id"), eventType);
+            return;
+        }
+        String eventId = event.path("id").asText();
+        String sessionId = session.path("id").asText();
+        if (eventId.isBlank() || sessionId.isBlank()) {
+            throw new InvalidStripeEventException("Stripe event without event or session id");
+        }
+        stripeEventRepository.insertIfAbsent(eventId, eventType, sessionId,
+                paymentStatus.name());
+    }
+
+    @Scheduled(fixedDelayString = "${stripe.webhook.batch-interval:1s}",
+            initialDelayString = "${stripe.webhook.initial-delay:10s}")
+    public void scheduledProcessing() {
+        processPendingEvents();
+    }
+
+    @Override
+    public int processPendingEvents() {
+        int processed = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> processNextBatch());
+            processed += batch;
+        } while (batch == batchSize);
+        return processed;
+    }
+
+    @Scheduled(fixedDelayString = "${stripe.webhook.purge-interval:1h}",
+            initialDelayString = "${stripe.webhook.purge-interval:1h}")
+    public void scheduledPurge() {
+        purgeProcessedEvents();
+    }
+
+    @Override
+    public int purgeProcessedEvents() {
+        // processed events only guard against redeliveries, which Stripe stops after three days
+        int purged = 0;
+        int batch;
+        do {
+            batch = stripeEventRepository.deleteProcessedBefore(retentionSeconds, batchSize);
+            purged += batch;
+        } while (batch == batchSize);
+        return purged;
+    }
+
+    private int processNextBatch() {
+        List<StripeEvent> events = stripeEventRepository.lockUnprocessed(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        Map<Payment.Status, Set<String>> sessionsByStatus = events.stream()
+                .collect(Collectors.groupingBy(StripeEvent::getPaymentStatus,
+                        () -> new EnumMap<>(Payment.Status.class),
+                        Collectors.mapping(StripeEvent::getSessionId, Collectors.toSet())));
+        for (Payment.Status status : APPLY_ORDER) {
+            Set<String> sessionIds = sessionsByStatus.get(status);
+            if (sessionIds != null) {
+                paymentRepository.updateStatusBySessionIds(sessionIds,
+                        UPDATABLE_STATUSES.get(status), status);
+            }
+        }
+        stripeEventRepository.markProcessed(events.stream()
+                .map(StripeEvent::getEventId)
+                .toList());
+        return events.size();
+    }
+
+    private JsonNode parseVerifiedEvent(String payload, String signature) {
+        try {
+            Webhook.Signature.verifyHeader(payload, signature, webhookSecret,
+                    signatureTolerance);
+            return objectMapper.readTree(payload);
+        } catch (SignatureVerificationException e) {
+            throw new InvalidStripeEventException("Invalid Stripe signature", e);
+        } catch (JsonProcessingException e) {
+            throw new InvalidStripeEventException("Malformed Stripe event", e);
+        }
+    }
+}
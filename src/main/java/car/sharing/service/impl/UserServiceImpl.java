@@ -1,5 +1,6 @@
 package car.sharing.service.impl;
 
+import car.sharing.config.CacheConfig;
 import car.sharing.dto.user.UpdateUserRole;
 import car.sharing.dto.user.UserRegistrationRequestDto;
 import car.sharing.dto.user.UserRequestDto;
@@ -15,6 +16,7 @@ import car.sharing.repository.user.UserRepository;
 import car.sharing.service.UserService;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +31,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS_CACHE, key = "#result.email")
     public UserResponseUpdateRole updateRoleForUser(UpdateUserRole userRole, Long userId) {
         User user = getUserById(userId);
         Set<Role> byRoleName = roleRepository.findByUserRole(userRole.userRole());
@@ -54,12 +57,13 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
-    public UserResponseDto getUserInfo(User user) {
-        return userMapper.toDto(user);
+    public UserResponseDto getUserInfo(Long userId) {
+        return userMapper.toDto(getUserById(userId));
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS_CACHE, key = "#result.email")
     public UserResponseDto updateUserInfo(UserRequestDto requestDto, Long userId) {
         User user = getUserById(userId);
         user.setFirstName(requestDto.firstName());
@@ -0,0 +1,121 @@
+package car.sharing.service.pricing;
+
+import car.sharing.model.Car;
+import car.sharing.model.Rental;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PricingEngine {
+    private static final int CENTS_SCALE = 2;
+    private static final int DAYS_IN_WEEK = 7;
+    private static final int WEEKEND_DAYS_IN_WEEK = 2;
+    private static final long FULL_RATE = Tariff.FULL_RATE_PERCENT;
+    // prices are accumulated in 1/10000 of a cent: two percentages apply to one amount
+    private static final long UNITS_PER_CENT = FULL_RATE * FULL_RATE;
+
+    private final int weekendRatePercent;
+    private final int[] discountMinDays;
+    private final int[] discountPercents;
+    private final int[] fineMultiplierPercents;
+    private final int defaultFineMultiplierPercent;
+
+    public PricingEngine(Tariff tariff) {
+        List<Tariff.LongRentalDiscount> discounts = tariff.longRentalDiscounts().stream()
+                .sorted(Comparator.comparingInt(Tariff.LongRentalDiscount::minDays).reversed())
+                .toList();
+        this.weekendRatePercent = tariff.weekendRatePercent();
+        this.discountMinDays = discounts.stream()
+                .mapToInt(Tariff.LongRentalDiscount::minDays)
+                .toArray();
+        this.discountPercents = discounts.stream()
+                .mapToInt(Tariff.LongRentalDiscount::percent)
+                .toArray();
+        this.defaultFineMultiplierPercent = tariff.fineMultiplierPercent();
+        this.fineMultiplierPercents = new int[Car.CarFrame.values().length];
+        for (Car.CarFrame carFrame : Car.CarFrame.values()) {
+            fineMultiplierPercents[carFrame.ordinal()] = tariff.fineMultiplierPercentsByFrame()
+                    .getOrDefault(carFrame, defaultFineMultiplierPercent);
+        }
+    }
+
+    public BigDecimal price(Rental rental) {
+        return toAmount(priceInCents(rental, rental.getActualReturnDate()));
+    }
+
+    public BigDecimal price(Rental rental, LocalDate actualReturnDate) {
+        return toAmount(priceInCents(rental, actualReturnDate));
+    }
+
+    public long priceInCents(Rental rental, LocalDate actualReturnDate) {
+        Car car = rental.getCar();
+        return priceInCents(toCents(car.getDailyFee()), car.getCarFrame(),
+                rental.getRentalDate(), rental.getReturnDate(), actualReturnDate);
+    }
+
+    public long priceInCents(long dailyFeeCents, Car.CarFrame carFrame, LocalDate rentalDate,
+                             LocalDate returnDate, LocalDate actualReturnDate) {
+        long units = PricingRule.of(returnDate, actualReturnDate).priceInUnits(this,
+                dailyFeeCents, carFrame, rentalDate, returnDate, actualReturnDate);
+        return Math.floorDiv(units + UNITS_PER_CENT / 2, UNITS_PER_CENT);
+    }
+
+    public long[] priceInCents(List<Rental> rentals) {
+        long[] prices = new long[rentals.size()];
+        for (int i = 0; i < prices.length; i++) {
+            Rental rental = rentals.get(i);
+            prices[i] = priceInCents(rental, rental.getActualReturnDate());
+        }
+        return prices;
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(CENTS_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, CENTS_SCALE);
+    }
+
+    long rentalUnits(long dailyFeeCents, LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to);
+        long weekendDays = weekendRatePercent == FULL_RATE || days <= 0
+                ? 0 : countWeekendDays(from, days);
+        long dayRates = (days - weekendDays) * FULL_RATE + weekendDays * weekendRatePercent;
+        return Math.multiplyExact(Math.multiplyExact(dailyFeeCents, dayRates),
+                FULL_RATE - getDiscountPercent(days));
+    }
+
+    long fineUnits(long dailyFeeCents, Car.CarFrame carFrame, long overdueDays) {
+        int multiplierPercent = carFrame == null
+                ? defaultFineMultiplierPercent : fineMultiplierPercents[carFrame.ordinal()];
+        return Math.multiplyExact(Math.multiplyExact(dailyFeeCents, overdueDays),
+                multiplierPercent * FULL_RATE);
+    }
+
+    private int getDiscountPercent(long days) {
+        for (int i = 0; i < discountMinDays.length; i++) {
+            if (days >= discountMinDays[i]) {
+                return discountPercents[i];
+            }
+        }
+        return 0;
+    }
+
+    private long countWeekendDays(LocalDate from, long days) {
+        long weekendDays = days / DAYS_IN_WEEK * WEEKEND_DAYS_IN_WEEK;
+        int dayOfWeek = from.getDayOfWeek().getValue();
+        for (long i = 0; i < days % DAYS_IN_WEEK; i++) {
+            if ((dayOfWeek + i - 1) % DAYS_IN_WEEK + 1 >= DayOfWeek.SATURDAY.getValue()) {
+                weekendDays++;
+            }
+        }
+        return weekendDays;
+    }
+}
@@ -0,0 +1,34 @@
+package car.sharing.service.pricing;
+
+import car.sharing.model.Car;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+enum PricingRule {
+    ON_TIME {
+        @Override
+        long priceInUnits(PricingEngine engine, long dailyFeeCents, Car.CarFrame carFrame,
+                          LocalDate rentalDate, LocalDate returnDate,
+                          LocalDate actualReturnDate) {
+            return engine.rentalUnits(dailyFeeCents, rentalDate, actualReturnDate);
+        }
+    },
+    LATE {
+        @Override
+        long priceInUnits(PricingEngine engine, long dailyFeeCents, Car.CarFrame carFrame,
+                          LocalDate rentalDate, LocalDate returnDate,
+                          LocalDate actualReturnDate) {
+            return Math.addExact(engine.rentalUnits(dailyFeeCents, rentalDate, returnDate),
+                    engine.fineUnits(dailyFeeCents, carFrame,
+                            ChronoUnit.DAYS.between(returnDate, actualReturnDate)));
+        }
+    };
+
+    static PricingRule of(LocalDate returnDate, LocalDate actualReturnDate) {
+        return actualReturnDate.isAfter(returnDate) ? LATE : ON_TIME;
+    }
+
+    abstract long priceInUnits(PricingEngine engine, long dailyFeeCents, Car.CarFrame carFrame,
+                               LocalDate rentalDate, LocalDate returnDate,
+                               LocalDate actualReturnDate);
+}
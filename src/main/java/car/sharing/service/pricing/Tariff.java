@@ -0,0 +1,39 @@
+package car.sharing.service.pricing;
+
+import car.sharing.model.Car;
+import java.util.List;
+import java.util.Map;
+
+public record Tariff(
+        int weekendRatePercent,
+        List<LongRentalDiscount> longRentalDiscounts,
+        int fineMultiplierPercent,
+        Map<Car.CarFrame, Integer> fineMultiplierPercentsByFrame
+) {
+    public static final int FULL_RATE_PERCENT = 100;
+    public static final Tariff STANDARD = new Tariff(FULL_RATE_PERCENT, List.of(), 150, Map.of());
+
+    public Tariff {
+        requireNotNegative(weekendRatePercent, "Weekend rate");
+        requireNotNegative(fineMultiplierPercent, "Fine multiplier");
+        fineMultiplierPercentsByFrame.values()
+                .forEach(percent -> requireNotNegative(percent, "Fine multiplier"));
+        longRentalDiscounts = List.copyOf(longRentalDiscounts);
+        fineMultiplierPercentsByFrame = Map.copyOf(fineMultiplierPercentsByFrame);
+    }
+
+    private static void requireNotNegative(int percent, String name) {
+        if (percent < 0) {
+            throw new IllegalArgumentException(name + " can`t be negative: " + percent);
+        }
+    }
+
+    public record LongRentalDiscount(int minDays, int percent) {
+        public LongRentalDiscount {
+            if (minDays < 1 || percent < 0 || percent > FULL_RATE_PERCENT) {
+                throw new IllegalArgumentException("Invalid long rental discount: "
+                        + percent + "% from " + minDays + " days");
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package car.sharing.telegram;
+
+import car.sharing.model.FailedNotification;
+import car.sharing.repository.notification.FailedNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+@Slf4j
+public class NotificationDispatcher {
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVER_ERROR = 500;
+    private static final int MAX_REASON_LENGTH = 1000;
+    private static final int MAX_BACKOFF_SHIFT = 20;
+
+    private final TelegramBot telegramBot;
+    private final FailedNotificationRepository failedNotificationRepository;
+    private final Settings settings;
+    private final RateLimiter globalRateLimiter;
+    private final ScheduledExecutorService workers;
+    private final Map<Long, ChatLane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Timer deliveryTimer;
+    private final Counter retryCounter;
+    private final Counter deadLetterCounter;
+
+    public NotificationDispatcher(TelegramBot telegramBot,
+                                  FailedNotificationRepository failedNotificationRepository,
+                                  MeterRegistry meterRegistry,
+                                  Settings settings) {
+        this.telegramBot = telegramBot;
+        this.failedNotificationRepository = failedNotificationRepository;
+        this.settings = settings;
+        this.globalRateLimiter = new RateLimiter(settings.globalMessagesPerSecond());
+        this.workers = Executors.newScheduledThreadPool(settings.workers(),
+                new CustomizableThreadFactory("notification-"));
+        this.deliveryTimer = Timer.builder("notifications.delivery")
+                .description("Time from enqueueing a notification to its delivery")
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("notifications.retries")
+                .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("notifications.dead.letters")
+                .register(meterRegistry);
+        Gauge.builder("notifications.queue.depth", pending, AtomicInteger::get)
+                .description("Notifications waiting for delivery")
+                .register(meterRegistry);
+    }
+
+    public void dispatch(String message, Long chatId) {
+        Notification notification = new Notification(chatId, message, System.nanoTime());
+        if (pending.incrementAndGet() > settings.queueCapacity()) {
+            pending.decrementAndGet();
+            workers.execute(() -> deadLetter(notification, "Notification queue is full"));
+            return;
+        }
+        ChatLane[] laneToSchedule = new ChatLane[1];
+        lanes.compute(chatId, (id, current) -> {
+            ChatLane lane = current == null ? new ChatLane(id) : current;
+            synchronized (lane) {
+                lane.notifications.addLast(notification);
+                if (!lane.scheduled) {
+                    lane.scheduled = true;
+                    laneToSchedule[0] = lane;
+                }
+            }
+            return lane;
+        });
+        if (laneToSchedule[0] != null) {
+            workers.execute(() -> deliverNext(laneToSchedule[0]));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        lanes.values().forEach(lane -> {
+            synchronized (lane) {
+                lane.notifications.forEach(notification -> deadLetter(notification,
+                        "Application was stopped before delivery"));
+                lane.notifications.clear();
+            }
+        });
+    }
+
+    private void deliverNext(ChatLane lane) {
+        Notification notification = peek(lane);
+        if (notification == null) {
+            return;
+        }
+        long waitNanos = Math.max(lane.nextSendNanos - System.nanoTime(), 0);
+        if (waitNanos == 0) {
+            waitNanos = globalRateLimiter.tryAcquire();
+        }
+        if (waitNanos > 0) {
+            schedule(lane, waitNanos);
+            return;
+        }
+        try {
+            deliver(lane, notification);
+        } finally {
+            workers.execute(() -> deliverNext(lane));
+        }
+    }
+
+    private void deliver(ChatLane lane, Notification notification) {
+        try {
+            telegramBot.sendMessageToUser(notification.message(), notification.chatId());
+        } catch (RuntimeException e) {
+            handleFailure(lane, notification, e);
+            return;
+        }
+        complete(lane);
+        lane.nextSendNanos = System.nanoTime() + settings.perChatInterval().toNanos();
+        deliveryTimer.record(System.nanoTime() - notification.enqueuedNanos(),
+                TimeUnit.NANOSECONDS);
+    }
+
+    private void handleFailure(ChatLane lane, Notification notification, RuntimeException e) {
+        lane.attempts++;
+        Duration retryDelay = getRetryDelay(e, lane.attempts);
+        if (retryDelay == null || lane.attempts >= settings.maxAttempts()) {
+            log.warn("Giving up on notification for chat {} after {} attempts",
+                    notification.chatId(), lane.attempts, e);
+            int attempts = lane.attempts;
+            complete(lane);
+            deadLetter(notification, e.getMessage(), attempts);
+            return;
+        }
+        retryCounter.increment();
+        lane.nextSendNanos = System.nanoTime() + retryDelay.toNanos();
+    }
+
+    private Duration getRetryDelay(RuntimeException e, int attempts) {
+        if (e.getCause() instanceof TelegramApiRequestException requestException
+                && requestException.getErrorCode() != null) {
+            int errorCode = requestException.getErrorCode();
+            if (errorCode == TOO_MANY_REQUESTS && requestException.getParameters() != null
+                    && requestException.getParameters().getRetryAfter() != null) {
+                return Duration.ofSeconds(requestException.getParameters().getRetryAfter());
+            }
+            if (errorCode != TOO_MANY_REQUESTS && errorCode < SERVER_ERROR) {
+                return null;
+            }
+        }
+        Duration backoff = settings.initialBackoff()
+                .multipliedBy(1L << Math.min(attempts - 1, MAX_BACKOFF_SHIFT));
+        return backoff.compareTo(settings.maxBackoff()) > 0 ? settings.maxBackoff() : backoff;
+    }
+
+    private Notification peek(ChatLane lane) {
+        Notification[] head = new Notification[1];
+        lanes.compute(lane.chatId, (id, current) -> {
+            synchronized (lane) {
+                head[0] = lane.notifications.peekFirst();
+                if (head[0] == null) {
+                    lane.scheduled = false;
+                    return null;
+                }
+                return current;
+            }
+        });
+        return head[0];
+    }
+
+    private void complete(ChatLane lane) {
+        synchronized (lane) {
+            lane.notifications.pollFirst();
+            lane.attempts = 0;
+        }
+        pending.decrementAndGet();
+    }
+
+    private void schedule(ChatLane lane, long delayNanos) {
+        workers.schedule(() -> deliverNext(lane), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void deadLetter(Notification notification, String reason) {
+        deadLetter(notification, reason, 0);
+    }
+
+    private void deadLetter(Notification notification, String reason, int attempts) {
+        deadLetterCounter.increment();
+        FailedNotification failedNotification = new FailedNotification();
+        failedNotification.setChatId(notification.chatId());
+        failedNotification.setMessage(notification.message());
+        failedNotification.setReason(reason == null ? "Unknown error"
+                : reason.substring(0, Math.min(reason.length(), MAX_REASON_LENGTH)));
+        failedNotification.setAttempts(attempts);
+        failedNotification.setFailedAt(LocalDateTime.now());
+        try {
+            failedNotificationRepository.save(failedNotification);
+        } catch (RuntimeException e) {
+            log.error("Can`t store failed notification for chat {}", notification.chatId(), e);
+        }
+    }
+
+    public record Settings(
+            int workers,
+            int queueCapacity,
+            int maxAttempts,
+            Duration initialBackoff,
+            Duration maxBackoff,
+            int globalMessagesPerSecond,
+            Duration perChatInterval
+    ) {
+    }
+
+    private record Notification(Long chatId, String message, long enqueuedNanos) {
+    }
+
+    private static class ChatLane {
+        private final Long chatId;
+        private final Deque<Notification> notifications = new ArrayDeque<>();
+        private boolean scheduled;
+        private int attempts;
+        private long nextSendNanos;
+
+        private ChatLane(Long chatId) {
+            this.chatId = chatId;
+        }
+    }
+}
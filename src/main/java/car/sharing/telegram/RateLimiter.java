@@ -0,0 +1,23 @@
+package car.sharing.telegram;
+
+import java.util.concurrent.TimeUnit;
+
+public class RateLimiter {
+    private final long permitIntervalNanos;
+    private final long burstNanos = TimeUnit.SECONDS.toNanos(1);
+    private long nextFreeNanos = System.nanoTime() - burstNanos;
+
+    public RateLimiter(int permitsPerSecond) {
+        this.permitIntervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+    }
+
+    public synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        long earliest = Math.max(nextFreeNanos, now - burstNanos);
+        if (earliest > now) {
+            return earliest - now;
+        }
+        nextFreeNanos = earliest + permitIntervalNanos;
+        return 0;
+    }
+}
@@ -0,0 +1,47 @@
+package car.sharing.telegram;
+
+import car.sharing.config.BotConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class TelegramBotStarter {
+    private final BotConfig botConfig;
+    private final TelegramBot telegramBot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread starter = new Thread(this::connect, "telegram-bot-starter");
+        starter.setDaemon(true);
+        starter.start();
+    }
+
+    private void connect() {
+        try {
+            if (botConfig.isWebhookMode()) {
+                registerWebhook();
+            } else {
+                telegramBot.startPolling();
+                log.info("Telegram bot is polling for updates");
+            }
+        } catch (RuntimeException e) {
+            log.error("Can`t connect the telegram bot, notifications will not be received", e);
+        }
+    }
+
+    private void registerWebhook() {
+        if (botConfig.getWebhookUrl().isBlank() || botConfig.getWebhookSecret().isBlank()) {
+            log.error("Telegram webhook mode needs telegram.bot.webhook-url "
+                    + "and telegram.bot.webhook-secret");
+            return;
+        }
+        telegramBot.registerWebhook(botConfig.getWebhookUrl() + BotConfig.WEBHOOK_PATH,
+                botConfig.getWebhookSecret());
+        log.info("Telegram bot receives updates through the webhook");
+    }
+}
@@ -0,0 +1,18 @@
+package car.sharing.telegram;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class TelegramChatSession {
+    private final List<String> params = new ArrayList<>();
+    private String currentState = "";
+
+    public void reset() {
+        currentState = "";
+        params.clear();
+    }
+}
@@ -0,0 +1,141 @@
+package car.sharing.telegram;
+
+import car.sharing.dto.user.UserLoginRequestDto;
+import car.sharing.security.AuthenticationService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+
+@Component
+public class TelegramUpdateHandler {
+    private static final String LOGIN_STATE = "login";
+
+    private final AuthenticationService authenticationService;
+    private final Cache<Long, TelegramChatSession> sessions;
+
+    public TelegramUpdateHandler(AuthenticationService authenticationService,
+                                 @Value("${telegram.session.idle-timeout:10m}")
+                                 Duration idleTimeout,
+                                 @Value("${telegram.session.max-size:100000}")
+                                 long maxSessions) {
+        this.authenticationService = authenticationService;
+        this.sessions = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maxSessions)
+                .build();
+    }
+
+    public static Long getChatId(Update update) {
+        if (update.hasMessage()) {
+            return update.getMessage().getChatId();
+        }
+        if (update.hasCallbackQuery() && update.getCallbackQuery().getMessage() != null) {
+            return update.getCallbackQuery().getMessage().getChatId();
+        }
+        return null;
+    }
+
+    public SendMessage handle(Update update) {
+        SendMessage sendMessage = new SendMessage();
+        if (update.hasMessage() && update.getMessage().hasText()) {
+            sendMessage.setText("Command not recognised");
+            sendMessage.setChatId(update.getMessage().getChatId().toString());
+            String text = update.getMessage().getText();
+            Long chatId = update.getMessage().getChatId();
+            TelegramChatSession session = getSession(chatId);
+            if (text.startsWith("/")) {
+                sendMessage = processCommand(session, chatId.toString(), text);
+            } else if (!session.getCurrentState().isEmpty()) {
+                sendMessage = processDialog(session, chatId, text);
+            }
+        } else if (update.hasCallbackQuery()) {
+            CallbackQuery callbackQuery = update.getCallbackQuery();
+            sendMessage = processCallbackQuery(callbackQuery);
+        }
+        return sendMessage;
+    }
+
+    private TelegramChatSession getSession(Long chatId) {
+        return sessions.get(chatId, id -> new TelegramChatSession());
+    }
+
+    private SendMessage processCommand(TelegramChatSession session, String chatId, String text) {
+        SendMessage sendMessage = new SendMessage();
+        if (text.startsWith("/cancel")) {
+            session.reset();
+            sendMessage.setText("Current operation was canceled");
+            sendMessage.setChatId(chatId);
+        } else if (text.startsWith("/start")) {
+            sendMessage.setText("Welcome! This bot will send you updates about bookings\n"
+                    + "Type '/login' to continue");
+            sendMessage.setChatId(chatId);
+        } else if (text.startsWith("/login")) {
+            sendMessage.setText("Press me!");
+            sendMessage.setChatId(chatId);
+            sendMessage.setReplyMarkup(createLoggingKeyboard());
+        }
+        return sendMessage;
+    }
+
+    private SendMessage processCallbackQuery(CallbackQuery callbackQuery) {
+        SendMessage sendMessage = new SendMessage();
+        if (callbackQuery.getData().equals(LOGIN_STATE)) {
+            Long chatId = callbackQuery.getMessage().getChatId();
+            TelegramChatSession session = getSession(chatId);
+            session.reset();
+            session.setCurrentState(LOGIN_STATE);
+            sendMessage.setChatId(chatId.toString());
+            sendMessage.setText("Enter your email");
+        }
+        return sendMessage;
+    }
+
+    private SendMessage processDialog(TelegramChatSession session, Long chatId, String text) {
+        SendMessage sendMessage = new SendMessage();
+        if (session.getCurrentState().equals(LOGIN_STATE)) {
+            List<String> params = session.getParams();
+            params.add(text);
+            if (params.size() == 1) {
+                sendMessage.setText("Enter your password");
+                sendMessage.setChatId(chatId.toString());
+            } else if (params.size() == 2) {
+                UserLoginRequestDto requestDto =
+                        new UserLoginRequestDto(params.get(0), params.get(1));
+                try {
+                    authenticationService.authenticateWithTelegram(requestDto, chatId);
+                    sendMessage.setText("Success!");
+                    sendMessage.setChatId(chatId.toString());
+                } catch (BadCredentialsException e) {
+                    sendMessage.setText("Wrong email or password!");
+                    sendMessage.setChatId(chatId.toString());
+                    sendMessage.setReplyMarkup(createLoggingKeyboard());
+                } finally {
+                    sessions.invalidate(chatId);
+                }
+            }
+        }
+        return sendMessage;
+    }
+
+    private InlineKeyboardMarkup createLoggingKeyboard() {
+        InlineKeyboardButton button = new InlineKeyboardButton("Login");
+        button.setCallbackData(LOGIN_STATE);
+        List<InlineKeyboardButton> row = new ArrayList<>();
+        row.add(button);
+        List<List<InlineKeyboardButton>> keyboard = new ArrayList<>();
+        keyboard.add(row);
+        InlineKeyboardMarkup keyboardMarkup = new InlineKeyboardMarkup();
+        keyboardMarkup.setKeyboard(keyboard);
+        return keyboardMarkup;
+    }
+}
@@ -0,0 +1,71 @@
+package car.sharing.telegram;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+@Slf4j
+@Component
+public class TelegramUpdateProcessor {
+    private final TelegramUpdateHandler updateHandler;
+    private final ThreadPoolExecutor[] chatExecutors;
+
+    public TelegramUpdateProcessor(TelegramUpdateHandler updateHandler,
+                                   @Value("${telegram.updates.workers:8}") int workers,
+                                   @Value("${telegram.updates.queue-capacity:1000}")
+                                   int queueCapacity) {
+        this.updateHandler = updateHandler;
+        this.chatExecutors = new ThreadPoolExecutor[workers];
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("telegram-");
+        for (int i = 0; i < workers; i++) {
+            chatExecutors[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+        }
+    }
+
+    public boolean submit(Update update, Consumer<SendMessage> replySender) {
+        Long chatId = TelegramUpdateHandler.getChatId(update);
+        if (chatId == null) {
+            return true;
+        }
+        try {
+            getExecutor(chatId).execute(() -> process(update, replySender));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Dropping update {} for chat {}: too many updates in progress",
+                    update.getUpdateId(), chatId);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor executor : chatExecutors) {
+            executor.shutdown();
+        }
+    }
+
+    private void process(Update update, Consumer<SendMessage> replySender) {
+        try {
+            SendMessage reply = updateHandler.handle(update);
+            if (reply.getChatId() != null) {
+                replySender.accept(reply);
+            }
+        } catch (RuntimeException e) {
+            log.error("Can`t process update {}", update.getUpdateId(), e);
+        }
+    }
+
+    private ThreadPoolExecutor getExecutor(Long chatId) {
+        return chatExecutors[Math.floorMod(chatId.hashCode(), chatExecutors.length)];
+    }
+}
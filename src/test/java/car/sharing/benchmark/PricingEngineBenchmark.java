@@ -0,0 +1,99 @@
+package car.sharing.benchmark;
+
+import car.sharing.model.Car;
+import car.sharing.model.Rental;
+import car.sharing.service.LegacyPaymentAmount;
+import car.sharing.service.pricing.PricingEngine;
+import car.sharing.service.pricing.Tariff;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingEngineBenchmark {
+    private static final long SEED = 42;
+    private static final LocalDate START_DATE = LocalDate.of(2024, 1, 1);
+
+    @Param({"10000"})
+    private int rentalCount;
+
+    private List<Rental> rentals;
+    private PricingEngine pricingEngine;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(SEED);
+        Car.CarFrame[] carFrames = Car.CarFrame.values();
+        rentals = new ArrayList<>(rentalCount);
+        for (int i = 0; i < rentalCount; i++) {
+            Car car = new Car();
+            car.setCarFrame(carFrames[random.nextInt(carFrames.length)]);
+            car.setDailyFee(BigDecimal.valueOf(1 + random.nextInt(100_000), 2));
+            Rental rental = new Rental();
+            rental.setCar(car);
+            rental.setRentalDate(START_DATE.plusDays(random.nextInt(365)));
+            rental.setReturnDate(rental.getRentalDate().plusDays(random.nextInt(30)));
+            rental.setActualReturnDate(rental.getRentalDate().plusDays(random.nextInt(45)));
+            rentals.add(rental);
+        }
+        pricingEngine = new PricingEngine(Tariff.STANDARD);
+    }
+
+    @Benchmark
+    public BigDecimal legacyStrategies() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Rental rental : rentals) {
+            total = total.add(LegacyPaymentAmount.calculate(rental.getCar().getDailyFee(),
+                    rental.getRentalDate(), rental.getReturnDate(),
+                    rental.getActualReturnDate()));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal enginePerRental() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Rental rental : rentals) {
+            total = total.add(pricingEngine.price(rental));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long engineBatch() {
+        long total = 0;
+        for (long cents : pricingEngine.priceInCents(rentals)) {
+            total += cents;
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PricingEngineBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,127 @@
+package car.sharing.benchmark;
+
+import car.sharing.dto.car.CarSearchParametersDto;
+import car.sharing.dto.rental.RentalSearchParametersDto;
+import car.sharing.model.Car;
+import car.sharing.model.Rental;
+import car.sharing.repository.MapSpecificationProviderManager;
+import car.sharing.repository.SpecificationParameters;
+import car.sharing.repository.car.CarSpecificationBuilder;
+import car.sharing.repository.car.spec.BrandSpecificationProvider;
+import car.sharing.repository.car.spec.CarFrameSpecificationProvider;
+import car.sharing.repository.rental.RentalSpecificationBuilder;
+import car.sharing.repository.rental.spec.ActiveSpecificationProvider;
+import car.sharing.repository.rental.spec.UserSpecificationProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.domain.Specification;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class SpecificationBuilderBenchmark {
+    private static final long SEED = 42;
+    private static final int SEARCH_COUNT = 100_000;
+    private static final int BRAND_COUNT = 60;
+    private static final int MAX_VALUES_PER_FILTER = 3;
+    private static final long CACHE_SIZE = 1000;
+
+    @Param({"100", "100000"})
+    private int distinctUsers;
+
+    private CarSearchParametersDto[] carSearches;
+    private RentalSearchParametersDto[] rentalSearches;
+    private CarSpecificationBuilder carSpecificationBuilder;
+    private RentalSpecificationBuilder rentalSpecificationBuilder;
+    private Cache<List<List<?>>, Specification<Rental>> valueKeyedCache;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(SEED);
+        carSearches = new CarSearchParametersDto[SEARCH_COUNT];
+        rentalSearches = new RentalSearchParametersDto[SEARCH_COUNT];
+        for (int i = 0; i < SEARCH_COUNT; i++) {
+            carSearches[i] = new CarSearchParametersDto(randomBrands(random),
+                    randomCarFrames(random));
+            rentalSearches[i] = new RentalSearchParametersDto(
+                    new Long[]{1L + random.nextInt(distinctUsers)},
+                    random.nextBoolean() ? new Boolean[]{random.nextBoolean()} : null);
+        }
+        carSpecificationBuilder = new CarSpecificationBuilder(new MapSpecificationProviderManager<>(
+                List.of(new BrandSpecificationProvider(), new CarFrameSpecificationProvider())));
+        rentalSpecificationBuilder = new RentalSpecificationBuilder(
+                new MapSpecificationProviderManager<>(List.of(new UserSpecificationProvider(),
+                        new ActiveSpecificationProvider())));
+        valueKeyedCache = Caffeine.newBuilder()
+                .maximumSize(CACHE_SIZE)
+                .build();
+    }
+
+    @Benchmark
+    public Specification<Car> buildCarSearch() {
+        return carSpecificationBuilder.build(
+                carSearches[ThreadLocalRandom.current().nextInt(SEARCH_COUNT)]);
+    }
+
+    @Benchmark
+    public Specification<Rental> buildRentalSearch() {
+        return rentalSpecificationBuilder.build(
+                rentalSearches[ThreadLocalRandom.current().nextInt(SEARCH_COUNT)]);
+    }
+
+    @Benchmark
+    public Specification<Rental> buildRentalSearchThroughValueKeyedCache() {
+        RentalSearchParametersDto search =
+                rentalSearches[ThreadLocalRandom.current().nextInt(SEARCH_COUNT)];
+        return valueKeyedCache.get(List.of(SpecificationParameters.normalize(search.userId()),
+                SpecificationParameters.normalize(search.isActive())),
+                key -> rentalSpecificationBuilder.build(search));
+    }
+
+    private String[] randomBrands(Random random) {
+        String[] brands = new String[random.nextInt(MAX_VALUES_PER_FILTER + 1)];
+        for (int i = 0; i < brands.length; i++) {
+            brands[i] = "Brand" + random.nextInt(BRAND_COUNT);
+        }
+        return brands;
+    }
+
+    private String[] randomCarFrames(Random random) {
+        Car.CarFrame[] carFrames = Car.CarFrame.values();
+        String[] values = new String[random.nextInt(MAX_VALUES_PER_FILTER + 1)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = carFrames[random.nextInt(carFrames.length)].name();
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SpecificationBuilderBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
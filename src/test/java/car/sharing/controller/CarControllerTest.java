@@ -2,19 +2,29 @@ package car.sharing.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import car.sharing.dto.car.CarAvailabilityDto;
 import car.sharing.dto.car.CarDto;
+import car.sharing.dto.car.CarImportErrorDto;
+import car.sharing.dto.car.CarImportResultDto;
 import car.sharing.dto.car.CreateCarRequestDto;
+import car.sharing.dto.scroll.ScrollResponseDto;
 import car.sharing.model.Car;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -210,6 +220,211 @@ public class CarControllerTest {
         assertEquals(searchCarsExpected, Arrays.stream(listOfCarDtoActual).toList());
     }
 
+    @Test
+    @WithMockUser(username = "customer", roles = {"CUSTOMER", "MANAGER"})
+    @DisplayName("Scroll cars by daily fee page after page")
+    void scrollCars_SortedByDailyFee_returnPagesWithCursor() throws Exception {
+        List<CarDto> listOfCars = createListOfCars();
+
+        MvcResult firstPageResult = mockMvc.perform(get("/cars/scroll")
+                .param("size", "2")
+                .param("sort", "DAILY_FEE")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        ScrollResponseDto<CarDto> firstPage = readScrollResponse(firstPageResult);
+
+        MvcResult secondPageResult = mockMvc.perform(get("/cars/scroll")
+                .param("size", "2")
+                .param("cursor", firstPage.nextCursor())
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        ScrollResponseDto<CarDto> secondPage = readScrollResponse(secondPageResult);
+
+        assertEquals(List.of(listOfCars.get(1), listOfCars.get(0)), firstPage.content());
+        assertNotNull(firstPage.nextCursor());
+        assertEquals(List.of(listOfCars.get(2)), secondPage.content());
+        assertNull(secondPage.nextCursor());
+    }
+
+    @Test
+    @WithMockUser(username = "customer", roles = {"CUSTOMER", "MANAGER"})
+    @DisplayName("Scroll cars with a malformed cursor")
+    void scrollCars_InvalidCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/cars/scroll")
+                .param("cursor", "not-a-cursor")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "customer", roles = {"CUSTOMER", "MANAGER"})
+    @DisplayName("Scroll searched cars by params")
+    void scrollSearch_ValidParameters_returnPageOfCars() throws Exception {
+        List<CarDto> listOfCars = createListOfCars();
+
+        MvcResult mvcResult = mockMvc.perform(get("/cars/search/scroll")
+                .param("carFrames", "SEDAN")
+                .param("size", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        ScrollResponseDto<CarDto> page = readScrollResponse(mvcResult);
+        assertEquals(List.of(listOfCars.get(0)), page.content());
+        assertNotNull(page.nextCursor());
+    }
+
+    @Test
+    @WithMockUser(username = "customer", roles = {"CUSTOMER"})
+    @DisplayName("Get cars available for a period without bookings")
+    void findAvailableCars_NoBookings_ShouldReturnAllCars() throws Exception {
+        List<CarDto> listOfCarsExpected = createListOfCars();
+
+        MvcResult mvcResult = mockMvc.perform(get("/cars/available")
+                .param("from", "2024-12-05")
+                .param("to", "2024-12-10"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        CarDto[] listOfCarsActual = objectMapper.readValue(mvcResult.getResponse()
+                .getContentAsString(), CarDto[].class);
+        assertEquals(listOfCarsExpected, Arrays.stream(listOfCarsActual).toList());
+    }
+
+    @Test
+    @WithMockUser(username = "customer", roles = {"CUSTOMER"})
+    @DisplayName("Get availability of a car for a period without bookings")
+    void getAvailability_NoBookings_ShouldReturnAllUnitsFree() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/cars/{id}/availability",
+                        EXISTING_CAR_ID_FROM_DB)
+                .param("from", "2024-12-05")
+                .param("to", "2024-12-10"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        CarAvailabilityDto availability = objectMapper.readValue(mvcResult.getResponse()
+                .getContentAsString(), CarAvailabilityDto.class);
+        assertEquals(new CarAvailabilityDto(EXISTING_CAR_ID_FROM_DB,
+                LocalDate.parse("2024-12-05"), LocalDate.parse("2024-12-10"), 50, 50),
+                availability);
+    }
+
+    @Test
+    @WithMockUser(username = "customer", roles = {"CUSTOMER"})
+    @DisplayName("Can`t get available cars for a period that ends before it starts")
+    void findAvailableCars_ReturnBeforeRental_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/cars/available")
+                .param("from", "2024-12-10")
+                .param("to", "2024-12-05"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "manager", roles = {"MANAGER"})
+    @DisplayName("Import cars from CSV and report rejected rows")
+    void importCars_CsvWithInvalidRows_ShouldImportValidRowsAndReportErrors()
+            throws Exception {
+        //Given
+        String csv = """
+                brand,model,carFrame,inventory,dailyFee
+                Toyota,Corolla,sedan,50,30
+                "Audi, AG",Avant,UNIVERSAL,10,45.50
+                Lada,Niva,TRUCK,5,10
+                Skoda,Octavia,SEDAN,0,20
+                Kia,Sportage,SUV,3
+                """;
+
+        //When
+        MvcResult result = mockMvc.perform(post("/cars/import")
+                .content(csv)
+                .contentType("text/csv"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //Then
+        CarImportResultDto importResult = objectMapper.readValue(
+                result.getResponse().getContentAsString(), CarImportResultDto.class);
+        assertEquals(2, importResult.imported());
+        assertEquals(3, importResult.rejected());
+        assertEquals(List.of(4L, 5L, 6L), importResult.errors().stream()
+                .map(CarImportErrorDto::line)
+                .toList());
+        assertTrue(importResult.errors().get(1).message().startsWith("inventory:"));
+    }
+
+    @Test
+    @WithMockUser(username = "manager", roles = {"MANAGER"})
+    @DisplayName("Export all cars as CSV")
+    void exportCars_Csv_ShouldStreamHeaderAndOneRowPerCar() throws Exception {
+        //When
+        MvcResult asyncResult = mockMvc.perform(get("/cars/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andReturn();
+
+        //Then
+        assertEquals("""
+                id,model,brand,carFrame,inventory,dailyFee
+                1,Mercedes,Q7,SEDAN,100,50.00
+                2,Tesla,3,SEDAN,150,40.00
+                3,BMW,e39,UNIVERSAL,50,60.00
+                """, result.getResponse().getContentAsString());
+    }
+
+    @Test
+    @WithMockUser(username = "manager", roles = {"MANAGER"})
+    @DisplayName("Export cars with line breaks in quoted values and import them back")
+    void exportCars_CsvWithLineBreakInModel_ShouldImportBack() throws Exception {
+        //Given
+        String csv = """
+                model,brand,carFrame,inventory,dailyFee
+                "Octavia
+                Combi, ""RS""\",Skoda,UNIVERSAL,5,20
+                Niva,Lada,TRUCK,5,10
+                """;
+        CarImportResultDto firstImport = importCsv(csv);
+
+        //When
+        MvcResult asyncResult = mockMvc.perform(get("/cars/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String exported = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        CarImportResultDto secondImport = importCsv(exported);
+
+        //Then
+        assertEquals(1, firstImport.imported());
+        assertEquals(List.of(4L), firstImport.errors().stream()
+                .map(CarImportErrorDto::line)
+                .toList());
+        assertTrue(exported.contains(",\"Octavia\nCombi, \"\"RS\"\"\",Skoda,UNIVERSAL,5,"));
+        assertEquals(4, secondImport.imported());
+        assertEquals(0, secondImport.rejected());
+    }
+
+    private CarImportResultDto importCsv(String csv) throws Exception {
+        MvcResult result = mockMvc.perform(post("/cars/import")
+                .content(csv)
+                .contentType("text/csv"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(),
+                CarImportResultDto.class);
+    }
+
+    private ScrollResponseDto<CarDto> readScrollResponse(MvcResult result) throws Exception {
+        return objectMapper.readValue(result.getResponse().getContentAsString(),
+                new TypeReference<>() {});
+    }
+
     private CreateCarRequestDto createCarRequestDto() {
         return new CreateCarRequestDto("Corolla",
                 "Toyota", Car.CarFrame.SEDAN, 50, BigDecimal.valueOf(30));
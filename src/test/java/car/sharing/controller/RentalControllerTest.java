@@ -3,16 +3,26 @@ package car.sharing.controller;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import car.sharing.dto.rental.RentalBatchReturnRequestDto;
 import car.sharing.dto.rental.RentalRequestDto;
 import car.sharing.dto.rental.RentalResponseDto;
+import car.sharing.dto.rental.RentalReturnResultDto;
+import car.sharing.dto.rental.RentalReturnStatus;
+import car.sharing.dto.scroll.ScrollResponseDto;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -78,6 +88,22 @@ public class RentalControllerTest {
                 rentalResponseDtoExpected, rentalResponseDtoActual, "id"));
     }
 
+    @Test
+    @WithUserDetails("messi@gmail.com")
+    @DisplayName("Reject a rental with a return date in the past")
+    void createRental_PastReturnDate_ShouldReturnBadRequest() throws Exception {
+        //Given
+        RentalRequestDto rentalRequestDto = new RentalRequestDto(
+                LocalDate.now().minusDays(6), LocalDate.now().minusDays(1), 1L);
+        String jsonRequest = objectMapper.writeValueAsString(rentalRequestDto);
+
+        //When
+        mockMvc.perform(post("/rentals")
+                .content(jsonRequest)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(username = "manager", roles = {"MANAGER"})
     @DisplayName("Get a rental by id")
@@ -123,6 +149,47 @@ public class RentalControllerTest {
         assertEquals(LocalDate.now(), rentalResponseDtoActual.actualReturnDate());
     }
 
+    @Test
+    @WithMockUser(username = "manager", roles = {"MANAGER"})
+    @DisplayName("Return several rentals with a result for each rental id")
+    void returnRentals_MixedRentalIds_ShouldReturnResultPerRentalId() throws Exception {
+        //Given
+        String jsonRequest = objectMapper.writeValueAsString(
+                new RentalBatchReturnRequestDto(List.of(1L, 3L, 100L)));
+
+        //When
+        MvcResult result = mockMvc.perform(post("/rentals/return")
+                .content(jsonRequest)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //Then
+        List<RentalReturnResultDto> results = objectMapper.readValue(result.getResponse()
+                .getContentAsString(), new TypeReference<>() {});
+        assertEquals(List.of(RentalReturnStatus.RETURNED, RentalReturnStatus.ALREADY_RETURNED,
+                RentalReturnStatus.NOT_FOUND),
+                results.stream().map(RentalReturnResultDto::status).toList());
+        assertEquals(LocalDate.now(), results.get(0).rental().actualReturnDate());
+        assertEquals(LocalDate.of(2024, 12, 15), results.get(1).rental().actualReturnDate());
+        assertNull(results.get(2).rental());
+    }
+
+    @Test
+    @WithMockUser(username = "manager", roles = {"MANAGER"})
+    @DisplayName("Reject a batch return without rental ids")
+    void returnRentals_EmptyRentalIds_ShouldReturnBadRequest() throws Exception {
+        //Given
+        String jsonRequest = objectMapper.writeValueAsString(
+                new RentalBatchReturnRequestDto(List.of()));
+
+        //When
+        mockMvc.perform(post("/rentals/return")
+                .content(jsonRequest)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(username = "manager", roles = {"MANAGER"})
     @DisplayName("Search rental by params from database")
@@ -146,9 +213,80 @@ public class RentalControllerTest {
         assertArrayEquals(searchRentalsExpected.toArray(), searchRentalsActual);
     }
 
+    @Test
+    @WithMockUser(username = "manager", roles = {"MANAGER"})
+    @DisplayName("Scroll rentals by params page after page")
+    void scrollSearch_ValidRentalParams_ShouldReturnPagesWithCursor() throws Exception {
+        //Given
+        List<RentalResponseDto> rentalsExpected = createListOfRentalResponseDto();
+
+        //When
+        MvcResult firstPageResult = mockMvc.perform(get("/rentals/search/scroll")
+                .param("isActive", "true")
+                .param("size", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        ScrollResponseDto<RentalResponseDto> firstPage = readScrollResponse(firstPageResult);
+
+        MvcResult secondPageResult = mockMvc.perform(get("/rentals/search/scroll")
+                .param("isActive", "true")
+                .param("size", "1")
+                .param("cursor", firstPage.nextCursor())
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        ScrollResponseDto<RentalResponseDto> secondPage = readScrollResponse(secondPageResult);
+
+        //Then
+        assertEquals(List.of(rentalsExpected.get(0)), firstPage.content());
+        assertNotNull(firstPage.nextCursor());
+        assertEquals(List.of(rentalsExpected.get(1)), secondPage.content());
+        assertNull(secondPage.nextCursor());
+    }
+
+    @Test
+    @WithMockUser(username = "manager", roles = {"MANAGER"})
+    @DisplayName("Stream rentals by params as newline-delimited JSON")
+    void streamSearch_ValidRentalParams_ShouldReturnOneRentalPerLine() throws Exception {
+        //Given
+        List<RentalResponseDto> rentalsExpected = createListOfRentalResponseDto();
+
+        //When
+        MvcResult asyncResult = mockMvc.perform(get("/rentals/search/stream")
+                .param("isActive", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn();
+
+        //Then
+        List<RentalResponseDto> rentalsActual = Arrays.stream(result.getResponse()
+                .getContentAsString()
+                .split("\n"))
+                .map(this::readRental)
+                .toList();
+        assertEquals(rentalsExpected, rentalsActual);
+    }
+
+    private ScrollResponseDto<RentalResponseDto> readScrollResponse(MvcResult result)
+            throws Exception {
+        return objectMapper.readValue(result.getResponse().getContentAsString(),
+                new TypeReference<>() {});
+    }
+
+    private RentalResponseDto readRental(String line) {
+        try {
+            return objectMapper.readValue(line, RentalResponseDto.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("Can`t read rental from line: " + line, e);
+        }
+    }
+
     private RentalRequestDto createRentalRequestDto() {
-        return new RentalRequestDto(LocalDate.of(2024, 12, 6),
-                LocalDate.of(2024, 12, 12), 1L);
+        return new RentalRequestDto(LocalDate.now(), LocalDate.now().plusDays(6), 1L);
     }
 
     private RentalResponseDto createRentalResponseDto(RentalRequestDto requestDto) {
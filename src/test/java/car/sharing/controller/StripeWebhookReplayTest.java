@@ -0,0 +1,152 @@
+package car.sharing.controller;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import car.sharing.model.Payment;
+import car.sharing.repository.payment.PaymentRepository;
+import car.sharing.service.StripeWebhookService;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HexFormat;
+import java.util.List;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@Sql(scripts = {"classpath:database/cars/add-cars.sql",
+        "classpath:database/users/add-users.sql",
+        "classpath:database/rentals/add-rentals.sql",
+        "classpath:database/payments/add-payments.sql"},
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"classpath:database/payments/remove-payments.sql",
+        "classpath:database/rentals/remove-rentals.sql",
+        "classpath:database/users/remove-users.sql",
+        "classpath:database/cars/remove-cars.sql"},
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@SpringBootTest
+public class StripeWebhookReplayTest {
+    private static final String REPLAY_EVENTS = "stripe/replay-events.jsonl";
+    private static final String SIGNATURE_HEADER = "Stripe-Signature";
+
+    protected static MockMvc mockMvc;
+    @Autowired
+    private StripeWebhookService stripeWebhookService;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Value("${stripe.webhook.secret}")
+    private String webhookSecret;
+
+    @BeforeAll
+    static void beforeAll(@Autowired WebApplicationContext webContext) {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(webContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Replayed events are stored once per id and applied in one batch")
+    void receiveWebhook_ReplayedEvents_ShouldApplyLatestPaymentStatuses() throws Exception {
+        //Given
+        List<String> events = Files.readAllLines(
+                new ClassPathResource(REPLAY_EVENTS).getFile().toPath(), StandardCharsets.UTF_8);
+
+        //When
+        for (String event : events) {
+            sendEvent(event, sign(event), status().isOk());
+        }
+        int processed = stripeWebhookService.processPendingEvents();
+
+        //Then
+        Assertions.assertEquals(3, processed);
+        Assertions.assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM stripe_events WHERE processed_at IS NOT NULL",
+                Integer.class));
+        Assertions.assertEquals(Payment.Status.PAID,
+                paymentRepository.findById(1L).orElseThrow().getStatus());
+        Assertions.assertEquals(Payment.Status.EXPIRED,
+                paymentRepository.findById(2L).orElseThrow().getStatus());
+        Assertions.assertEquals(0, stripeWebhookService.processPendingEvents());
+    }
+
+    @Test
+    @DisplayName("Event with invalid signature is rejected and not stored")
+    void receiveWebhook_InvalidSignature_ShouldReturnBadRequest() throws Exception {
+        //Given
+        String event = Files.readAllLines(new ClassPathResource(REPLAY_EVENTS).getFile().toPath(),
+                StandardCharsets.UTF_8).get(0);
+        String signature = sign(event.replace("sessionId1", "sessionId2"));
+
+        //When
+        sendEvent(event, signature, status().isBadRequest());
+
+        //Then
+        Assertions.assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM stripe_events", Integer.class));
+        Assertions.assertEquals(Payment.Status.PENDING,
+                paymentRepository.findById(1L).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Processed events older than the retention are purged")
+    void purgeProcessedEvents_EventsPastRetention_ShouldDeleteOnlyThem() throws Exception {
+        //Given
+        List<String> events = Files.readAllLines(
+                new ClassPathResource(REPLAY_EVENTS).getFile().toPath(), StandardCharsets.UTF_8);
+        for (String event : events) {
+            sendEvent(event, sign(event), status().isOk());
+        }
+        stripeWebhookService.processPendingEvents();
+        String oldEventId = jdbcTemplate.queryForObject(
+                "SELECT MIN(event_id) FROM stripe_events", String.class);
+        jdbcTemplate.update("UPDATE stripe_events SET processed_at = NOW() - INTERVAL 8 DAY "
+                + "WHERE event_id = ?", oldEventId);
+
+        //When
+        int purged = stripeWebhookService.purgeProcessedEvents();
+
+        //Then
+        Assertions.assertEquals(1, purged);
+        Assertions.assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM stripe_events WHERE event_id = ?",
+                Integer.class, oldEventId));
+        Assertions.assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM stripe_events", Integer.class));
+    }
+
+    private void sendEvent(String event, String signature, ResultMatcher expectedStatus)
+            throws Exception {
+        mockMvc.perform(post("/payments/webhook")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(SIGNATURE_HEADER, signature)
+                        .content(event))
+                .andExpect(expectedStatus);
+    }
+
+    private String sign(String payload) throws Exception {
+        long timestamp = System.currentTimeMillis() / 1000;
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8),
+                "HmacSHA256"));
+        byte[] hash = mac.doFinal((timestamp + "." + payload).getBytes(StandardCharsets.UTF_8));
+        return "t=" + timestamp + ",v1=" + HexFormat.of().formatHex(hash);
+    }
+}
@@ -0,0 +1,97 @@
+package car.sharing.controller;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import car.sharing.telegram.TelegramBot;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "telegram.bot.mode=webhook",
+                "telegram.bot.webhook-secret=" + TelegramWebhookControllerTest.SECRET})
+public class TelegramWebhookControllerTest {
+    static final String SECRET = "webhookSecret";
+    private static final String SECRET_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+    private static final long TIMEOUT_MILLIS = 5_000;
+    private static final String START_UPDATE = """
+            {
+              "update_id": 1,
+              "message": {
+                "message_id": 10,
+                "date": 1700000000,
+                "chat": {"id": 42, "type": "private"},
+                "text": "/start"
+              }
+            }
+            """;
+    protected static MockMvc mockMvc;
+    @MockBean
+    private TelegramBot telegramBot;
+
+    @BeforeAll
+    static void beforeAll(@Autowired WebApplicationContext webContext) {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(webContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Webhook update is acknowledged and answered asynchronously")
+    void receiveUpdate_ValidSecret_ShouldReplyToChat() throws Exception {
+        //When
+        mockMvc.perform(post("/telegram/webhook")
+                        .header(SECRET_HEADER, SECRET)
+                        .content(START_UPDATE)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        //Then
+        Mockito.verify(telegramBot, Mockito.timeout(TIMEOUT_MILLIS))
+                .sendReply(ArgumentMatchers.argThat(message ->
+                        message.getChatId().equals("42")
+                                && message.getText().contains("Welcome")));
+    }
+
+    @Test
+    @DisplayName("Webhook update with a wrong secret is rejected")
+    void receiveUpdate_WrongSecret_ShouldReturnForbidden() throws Exception {
+        //When
+        mockMvc.perform(post("/telegram/webhook")
+                        .header(SECRET_HEADER, "wrongSecret")
+                        .content(START_UPDATE)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+
+        //Then
+        Mockito.verify(telegramBot, Mockito.after(500).never())
+                .sendReply(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("Webhook update without the secret header is rejected")
+    void receiveUpdate_MissingSecretHeader_ShouldReturnForbidden() throws Exception {
+        //When
+        mockMvc.perform(post("/telegram/webhook")
+                        .content(START_UPDATE)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+
+        //Then
+        Mockito.verify(telegramBot, Mockito.after(500).never())
+                .sendReply(ArgumentMatchers.any());
+    }
+}
@@ -0,0 +1,107 @@
+package car.sharing.repository;
+
+import car.sharing.service.CarAvailabilityService;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+@Sql(scripts = {
+        "classpath:database/cars/add-cars.sql",
+        "classpath:database/users/add-users.sql",
+        "classpath:database/rentals/add-rentals.sql"},
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {
+        "classpath:database/rentals/remove-rentals.sql",
+        "classpath:database/users/remove-users.sql",
+        "classpath:database/cars/remove-cars.sql"},
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@SpringBootTest
+public class CarBookedDaysMigrationTest {
+    private static final String CHANGELOG = "db/changelog/db.changelog-master.yaml";
+    private static final String INVENTORY_QUERY = "SELECT inventory FROM cars WHERE id = ?";
+    private static final String DAYS_QUERY = "SELECT car_id, booked_date, units_booked "
+            + "FROM car_booked_days ORDER BY car_id, booked_date";
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CarAvailabilityService carAvailabilityService;
+
+    @Test
+    @DisplayName("Upgrade turns units left into total units and books active rentals once")
+    void update_ActiveRentalsBeforeCalendar_ShouldNotCountRentalsTwice() throws Exception {
+        //Given
+        dropCalendar();
+
+        //When
+        updateDatabase();
+
+        //Then
+        Assertions.assertEquals(101, jdbcTemplate.queryForObject(INVENTORY_QUERY,
+                Integer.class, 1L));
+        Assertions.assertEquals(151, jdbcTemplate.queryForObject(INVENTORY_QUERY,
+                Integer.class, 2L));
+        Assertions.assertEquals(50, jdbcTemplate.queryForObject(INVENTORY_QUERY,
+                Integer.class, 3L));
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT MAX(units_booked) FROM car_booked_days WHERE car_id = ?",
+                Integer.class, 1L));
+        Assertions.assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM car_booked_days WHERE car_id = ? "
+                        + "AND booked_date >= ? AND booked_date < ?",
+                Integer.class, 1L, LocalDate.of(2024, 12, 5), LocalDate.of(2024, 12, 10)));
+    }
+
+    @Test
+    @DisplayName("Upgrade books a late returned rental the same way as a calendar rebuild")
+    void update_LateReturnedRental_ShouldMatchRebuild() throws Exception {
+        //Given
+        jdbcTemplate.update("INSERT INTO rentals (id, rental_date, return_date, "
+                + "actual_return_date, car_id, user_id, is_active) "
+                + "VALUES (4, '2024-12-01', '2024-12-03', '2024-12-06', 2, 4, 0)");
+        dropCalendar();
+        updateDatabase();
+        List<Map<String, Object>> migratedDays = jdbcTemplate.queryForList(DAYS_QUERY);
+
+        //When
+        carAvailabilityService.rebuild();
+
+        //Then
+        Assertions.assertEquals(migratedDays, jdbcTemplate.queryForList(DAYS_QUERY));
+        Assertions.assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM car_booked_days WHERE car_id = ? "
+                        + "AND booked_date >= ? AND booked_date < ?",
+                Integer.class, 2L, LocalDate.of(2024, 12, 1), LocalDate.of(2024, 12, 6)));
+    }
+
+    private void dropCalendar() {
+        jdbcTemplate.execute("DROP TABLE car_booked_days");
+        jdbcTemplate.update("DELETE FROM DATABASECHANGELOG "
+                + "WHERE FILENAME LIKE '%12-create-car-booked-days-table.yaml' "
+                + "OR FILENAME LIKE '%13-create-car-booked-days-date-index.yaml' "
+                + "OR ID = 'add-car-booked-days-updated-at'");
+    }
+
+    private void updateDatabase() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                Liquibase liquibase = new Liquibase(CHANGELOG,
+                        new ClassLoaderResourceAccessor(), new JdbcConnection(connection))) {
+            liquibase.update(new Contexts());
+        }
+    }
+}
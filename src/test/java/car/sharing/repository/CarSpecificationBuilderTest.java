@@ -0,0 +1,44 @@
+package car.sharing.repository;
+
+import static car.sharing.repository.car.spec.BrandSpecificationProvider.BRAND_SPECIFICATION;
+import static car.sharing.repository.car.spec.CarFrameSpecificationProvider.CAR_FRAME_SPECIFICATION;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import car.sharing.dto.car.CarSearchParametersDto;
+import car.sharing.model.Car;
+import car.sharing.repository.car.CarSpecificationBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+public class CarSpecificationBuilderTest {
+    @Test
+    @DisplayName("Pass sorted values without duplicates so the IN-list SQL stays the same")
+    @SuppressWarnings("unchecked")
+    void build_UnorderedParametersWithDuplicates_ShouldPassNormalizedValues() {
+        //Given
+        SpecificationProviderManager<Car> manager = mock(SpecificationProviderManager.class);
+        SpecificationProvider<Car> brandProvider = mock(SpecificationProvider.class);
+        SpecificationProvider<Car> carFrameProvider = mock(SpecificationProvider.class);
+        when(manager.getSpecificationProvider(BRAND_SPECIFICATION)).thenReturn(brandProvider);
+        when(manager.getSpecificationProvider(CAR_FRAME_SPECIFICATION))
+                .thenReturn(carFrameProvider);
+        when(brandProvider.getSpecification(new Object[]{"Q7", "e39"}))
+                .thenReturn((root, query, criteriaBuilder) -> null);
+        when(carFrameProvider.getSpecification(new Object[]{"SEDAN"}))
+                .thenReturn((root, query, criteriaBuilder) -> null);
+        CarSpecificationBuilder specificationBuilder = new CarSpecificationBuilder(manager);
+
+        //When
+        Specification<Car> specification = specificationBuilder.build(new CarSearchParametersDto(
+                new String[]{"e39", "Q7", null, "Q7"}, new String[]{"SEDAN", "SEDAN"}));
+
+        //Then
+        verify(brandProvider).getSpecification(new Object[]{"Q7", "e39"});
+        verify(carFrameProvider).getSpecification(new Object[]{"SEDAN"});
+        Assertions.assertNotNull(specification);
+    }
+}
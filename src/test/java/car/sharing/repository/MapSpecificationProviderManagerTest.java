@@ -0,0 +1,63 @@
+package car.sharing.repository;
+
+import car.sharing.model.Car;
+import car.sharing.repository.car.spec.BrandSpecificationProvider;
+import car.sharing.repository.car.spec.CarFrameSpecificationProvider;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MapSpecificationProviderManagerTest {
+    private final SpecificationProvider<Car> brandProvider = new BrandSpecificationProvider();
+    private final SpecificationProvider<Car> carFrameProvider =
+            new CarFrameSpecificationProvider();
+
+    @Test
+    @DisplayName("Find specification provider by its key")
+    void getSpecificationProvider_ExistingKey_ShouldReturnProvider() {
+        //Given
+        SpecificationProviderManager<Car> manager = new MapSpecificationProviderManager<>(
+                List.of(brandProvider, carFrameProvider));
+
+        //When
+        SpecificationProvider<Car> actual = manager.getSpecificationProvider(
+                CarFrameSpecificationProvider.CAR_FRAME_SPECIFICATION);
+
+        //Then
+        Assertions.assertSame(carFrameProvider, actual);
+    }
+
+    @Test
+    @DisplayName("Throw exception for a key without specification provider")
+    void getSpecificationProvider_UnknownKey_ShouldThrowException() {
+        //Given
+        SpecificationProviderManager<Car> manager = new MapSpecificationProviderManager<>(
+                List.of(brandProvider));
+
+        //When
+        IllegalArgumentException exception = Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> manager.getSpecificationProvider("model"));
+
+        //Then
+        Assertions.assertEquals("Can`t find correct specification provider for key: model",
+                exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Reject two specification providers with the same key")
+    void create_DuplicateKeys_ShouldThrowException() {
+        //Given
+        List<SpecificationProvider<Car>> providers = List.of(brandProvider,
+                new BrandSpecificationProvider());
+
+        //When
+        IllegalStateException exception = Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> new MapSpecificationProviderManager<>(providers));
+
+        //Then
+        Assertions.assertTrue(exception.getMessage().endsWith("same key: brand"));
+    }
+}
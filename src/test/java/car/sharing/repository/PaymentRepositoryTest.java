@@ -1,5 +1,6 @@
 package car.sharing.repository;
 
+import car.sharing.dto.payment.external.PaymentResponseDto;
 import car.sharing.model.Payment;
 import car.sharing.repository.payment.PaymentRepository;
 import java.math.BigDecimal;
@@ -12,54 +13,106 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.jdbc.Sql;
 
+@Sql(scripts = {
+        "classpath:database/cars/add-cars.sql",
+        "classpath:database/users/add-users.sql",
+        "classpath:database/rentals/add-rentals.sql",
+        "classpath:database/payments/add-payments.sql"},
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {
+        "classpath:database/payments/remove-payments.sql",
+        "classpath:database/rentals/remove-rentals.sql",
+        "classpath:database/users/remove-users.sql",
+        "classpath:database/cars/remove-cars.sql"},
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 public class PaymentRepositoryTest {
+    private static final Long USER_ID = 3L;
+    private static final Pageable PAGEABLE = PageRequest.of(0, 20);
+
     @Autowired
     private PaymentRepository paymentRepository;
 
     @Test
-    @Sql(scripts = {
-            "classpath:database/cars/add-cars.sql",
-            "classpath:database/users/add-users.sql",
-            "classpath:database/rentals/add-rentals.sql",
-            "classpath:database/payments/add-payments.sql"},
-            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
-    @Sql(scripts = {
-            "classpath:database/payments/remove-payments.sql",
-            "classpath:database/rentals/remove-rentals.sql",
-            "classpath:database/users/remove-users.sql",
-            "classpath:database/cars/remove-cars.sql"},
-            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
-    @DisplayName("Find list payments by list rental ids")
-    public void convertListRentalsId_intoListOfPayments() throws MalformedURLException {
+    @DisplayName("Find payments of a user with one query")
+    public void findAllByUserId_UserWithPayments_ShouldReturnPaymentDtos()
+            throws MalformedURLException {
         // Given
-        Payment payment = new Payment();
-        payment.setId(1L);
-        payment.setStatus(Payment.Status.PENDING);
-        payment.setType(Payment.Type.PAYMENT);
-        payment.setSessionUrl(new URL("http://stripe1.url"));
-        payment.setSessionId("sessionId1");
-        payment.setTotalPrice(BigDecimal.valueOf(1000));
+        PaymentResponseDto payment = new PaymentResponseDto(1L, Payment.Status.PENDING,
+                Payment.Type.PAYMENT, new URL("http://stripe1.url"),
+                "sessionId1", new BigDecimal("1000.00"));
+
+        //When
+        List<PaymentResponseDto> listPaymentsActual = paymentRepository.findAllByUserId(
+                USER_ID, null, null, PAGEABLE);
 
-        Payment payment2 = new Payment();
-        payment2.setId(2L);
-        payment2.setStatus(Payment.Status.PENDING);
-        payment2.setType(Payment.Type.PAYMENT);
-        payment2.setSessionUrl(new URL("http://stripe2.url"));
-        payment2.setSessionId("sessionId2");
-        payment2.setTotalPrice(BigDecimal.valueOf(2000));
+        //Then
+        Assertions.assertEquals(List.of(payment), listPaymentsActual);
+    }
 
-        List<Payment> listOfPaymentsExpected = List.of(payment, payment2);
+    @Test
+    @DisplayName("Filter payments of a user by status and type")
+    public void findAllByUserId_StatusAndTypeFilters_ShouldReturnMatchingPayments() {
+        //When
+        List<PaymentResponseDto> pendingPayments = paymentRepository.findAllByUserId(
+                USER_ID, Payment.Status.PENDING, Payment.Type.PAYMENT, PAGEABLE);
+        List<PaymentResponseDto> paidPayments = paymentRepository.findAllByUserId(
+                USER_ID, Payment.Status.PAID, null, PAGEABLE);
+        List<PaymentResponseDto> fines = paymentRepository.findAllByUserId(
+                USER_ID, null, Payment.Type.FINE, PAGEABLE);
+
+        //Then
+        Assertions.assertEquals(1, pendingPayments.size());
+        Assertions.assertTrue(paidPayments.isEmpty());
+        Assertions.assertTrue(fines.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Allow only one pending payment per rental and type")
+    public void save_SecondPendingPaymentOfRental_ShouldViolateUniqueConstraint()
+            throws MalformedURLException {
+        //Given
+        Payment pendingPayment = paymentRepository.findById(1L).orElseThrow();
+        Payment duplicate = new Payment();
+        duplicate.setType(pendingPayment.getType());
+        duplicate.setRental(pendingPayment.getRental());
+        duplicate.setSessionId("sessionId3");
+        duplicate.setSessionUrl(new URL("http://stripe3.url"));
+        duplicate.setTotalPrice(BigDecimal.TEN);
+
+        //When
+        Assertions.assertThrows(DataIntegrityViolationException.class,
+                () -> paymentRepository.saveAndFlush(duplicate));
+    }
+
+    @Test
+    @DisplayName("Allow a new pending payment once the previous one expired")
+    public void save_PendingPaymentAfterExpiry_ShouldSucceed() throws MalformedURLException {
+        //Given
+        Payment pendingPayment = paymentRepository.findById(1L).orElseThrow();
+        paymentRepository.updateStatus(List.of(1L), Payment.Status.PENDING,
+                Payment.Status.EXPIRED);
+        Payment replacement = new Payment();
+        replacement.setType(pendingPayment.getType());
+        replacement.setRental(pendingPayment.getRental());
+        replacement.setSessionId("sessionId3");
+        replacement.setSessionUrl(new URL("http://stripe3.url"));
+        replacement.setTotalPrice(BigDecimal.TEN);
 
         //When
-        List<Long> rentals = List.of(1L, 2L);
-        List<Payment> listPaymentsActual = paymentRepository.findAllByRentalsId(rentals);
+        paymentRepository.saveAndFlush(replacement);
 
         //Then
-        Assertions.assertEquals(2, listPaymentsActual.size());
-        Assertions.assertEquals(listOfPaymentsExpected, listPaymentsActual);
+        Assertions.assertEquals("sessionId3", paymentRepository
+                .findByRentalIdAndTypeAndStatus(1L, Payment.Type.PAYMENT,
+                        Payment.Status.PENDING)
+                .map(Payment::getSessionId)
+                .orElseThrow());
     }
 }
@@ -0,0 +1,463 @@
+package car.sharing.repository;
+
+import car.sharing.dto.car.CarSearchParametersDto;
+import car.sharing.dto.rental.RentalSearchParametersDto;
+import car.sharing.model.Car;
+import car.sharing.model.Payment;
+import car.sharing.model.Rental;
+import car.sharing.model.Role;
+import car.sharing.repository.availability.CarBookedDayRepository;
+import car.sharing.repository.car.CarRepository;
+import car.sharing.repository.car.CarSpecificationBuilder;
+import car.sharing.repository.car.spec.BrandSpecificationProvider;
+import car.sharing.repository.car.spec.CarFrameSpecificationProvider;
+import car.sharing.repository.job.ScheduledJobRepository;
+import car.sharing.repository.payment.PaymentRepository;
+import car.sharing.repository.payment.StripeEventRepository;
+import car.sharing.repository.rental.OverdueRentalRepository;
+import car.sharing.repository.rental.RentalRepository;
+import car.sharing.repository.rental.RentalSpecificationBuilder;
+import car.sharing.repository.rental.spec.ActiveSpecificationProvider;
+import car.sharing.repository.rental.spec.UserSpecificationProvider;
+import car.sharing.repository.role.RoleRepository;
+import car.sharing.repository.user.UserRepository;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Sql(scripts = "classpath:database/query-plan/add-query-plan-data.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {
+        "classpath:database/payments/remove-payments.sql",
+        "classpath:database/rentals/remove-rentals.sql",
+        "classpath:database/users/remove-users.sql",
+        "classpath:database/cars/remove-cars.sql"},
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class QueryPlanTest {
+    private static final Long USER_ID = 105L;
+    private static final Long CAR_ID = 7L;
+    private static final Long RENTAL_ID = 7L;
+    private static final int SCROLL_SIZE = 20;
+    private static final String JOB_NAME = "overdue-rentals";
+    private static final String LEASE_OWNER = "query-plan";
+    private static final LocalDate FROM = LocalDate.of(2024, 12, 5);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 10);
+    private static final Set<String> FULL_SCANS = Set.of("ALL", "index");
+    private static final Set<String> WRITE_TARGETS = Set.of("INSERT", "REPLACE");
+    private static final String PRIMARY_KEY = "PRIMARY";
+    private static final String RENTALS_BY_USER = "idx_rentals_user_active_deleted";
+    private static final String RENTALS_OVERDUE = "idx_rentals_active_deleted_return_date";
+    private static final String CARS_BY_BRAND = "idx_cars_brand_frame_deleted";
+    private static final String CARS_BY_DAILY_FEE = "idx_cars_daily_fee";
+    private static final String CARS_BY_UPDATE = "idx_cars_updated_at";
+    private static final String BOOKED_DAYS_BY_DATE = "idx_car_booked_days_booked_date";
+    private static final String BOOKED_DAYS_BY_UPDATE = "idx_car_booked_days_updated_at";
+    private static final String PAYMENTS_BY_RENTAL = "idx_payments_rental";
+    private static final String PAYMENTS_BY_SESSION = "session_id";
+    private static final String STRIPE_EVENTS_UNPROCESSED = "idx_stripe_events_processed_received";
+    private static final String USERS_BY_EMAIL = "email";
+    private static final String ROLES_BY_NAME = "user_role";
+    private static final String CARS = "cars";
+    private static final String RENTALS = "rentals";
+    private static final String CAR_BOOKED_DAYS = "car_booked_days";
+
+    private final RentalSpecificationBuilder rentalSpecificationBuilder =
+            new RentalSpecificationBuilder(new MapSpecificationProviderManager<>(List.of(
+                    new UserSpecificationProvider(), new ActiveSpecificationProvider())));
+    private final CarSpecificationBuilder carSpecificationBuilder =
+            new CarSpecificationBuilder(new MapSpecificationProviderManager<>(List.of(
+                    new BrandSpecificationProvider(), new CarFrameSpecificationProvider())));
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private RentalRepository rentalRepository;
+    @Autowired
+    private OverdueRentalRepository overdueRentalRepository;
+    @Autowired
+    private CarRepository carRepository;
+    @Autowired
+    private CarBookedDayRepository carBookedDayRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private StripeEventRepository stripeEventRepository;
+    @Autowired
+    private ScheduledJobRepository scheduledJobRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Test
+    @DisplayName("Every repository query reads through an index unless it is meant to scan")
+    public void explain_RepositoryQueries_ShouldUseExpectedIndexes() {
+        //Given
+        Map<String, QueryCheck> queries = new LinkedHashMap<>();
+        putRentalQueries(queries);
+        putCarQueries(queries);
+        putAvailabilityQueries(queries);
+        putPaymentQueries(queries);
+        putJobAndUserQueries(queries);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        queries.forEach((name, check) -> {
+            //When
+            List<RecordedStatement> statements = statementRecorder.record(() ->
+                    transactionTemplate.executeWithoutResult(status -> {
+                        // writes are explained against the seeded rows, not their own changes
+                        status.setRollbackOnly();
+                        check.query().run();
+                    }));
+
+            //Then
+            Assertions.assertFalse(statements.isEmpty(), "No SQL was executed for " + name);
+            Set<String> usedKeys = new HashSet<>();
+            for (RecordedStatement statement : statements) {
+                for (Map<String, Object> row : explain(statement)) {
+                    String table = (String) row.get("table");
+                    Assertions.assertFalse(isFullScan(row)
+                                    && !check.scannedTables().contains(table),
+                            () -> name + " scans " + table + " (type " + row.get("type")
+                                    + "): " + statement.sql());
+                    if (row.get("key") != null) {
+                        usedKeys.add((String) row.get("key"));
+                    }
+                }
+            }
+            Assertions.assertTrue(usedKeys.containsAll(check.expectedKeys()),
+                    () -> name + " uses " + usedKeys + " instead of " + check.expectedKeys()
+                            + ": " + statements);
+        });
+    }
+
+    private void putRentalQueries(Map<String, QueryCheck> queries) {
+        queries.put("RentalRepository.findAllByUserId", new QueryCheck(
+                () -> rentalRepository.findAllByUserId(USER_ID), Set.of(RENTALS_BY_USER)));
+        queries.put("RentalRepository.findById", new QueryCheck(
+                () -> rentalRepository.findById(RENTAL_ID), Set.of(PRIMARY_KEY)));
+        queries.put("RentalRepository.findOverdueAfter", new QueryCheck(
+                () -> rentalRepository.findOverdueAfter(LocalDate.of(2025, 1, 1),
+                        LocalDate.of(2024, 10, 1), 0L, Limit.of(100)),
+                Set.of(RENTALS_OVERDUE, PRIMARY_KEY)));
+        queries.put("RentalRepository.findPaymentDetailsById", new QueryCheck(
+                () -> rentalRepository.findPaymentDetailsById(RENTAL_ID),
+                Set.of(PRIMARY_KEY, PAYMENTS_BY_RENTAL)));
+        queries.put("RentalRepository.streamAll by user", new QueryCheck(() -> {
+            try (Stream<Rental> rentals = rentalRepository.streamAll(
+                    rentalSpecificationBuilder.build(new RentalSearchParametersDto(
+                            new Long[]{USER_ID}, null)))) {
+                rentals.count();
+            }
+        }, Set.of(RENTALS_BY_USER)));
+        queries.put("RentalService.scroll by user and activity", new QueryCheck(
+                () -> scrollRentals(new RentalSearchParametersDto(
+                        new Long[]{USER_ID, USER_ID + 1}, new Boolean[]{true})),
+                Set.of(RENTALS_BY_USER)));
+        // the id-ordered walk stops at the LIMIT, a two-value filter can`t narrow it further
+        queries.put("RentalService.scroll by activity", new QueryCheck(
+                () -> scrollRentals(new RentalSearchParametersDto(null, new Boolean[]{false})),
+                Set.of(PRIMARY_KEY), Set.of(RENTALS)));
+        queries.put("OverdueRentalRepository.insertIfAbsent", new QueryCheck(
+                () -> overdueRentalRepository.insertIfAbsent(RENTAL_ID,
+                        LocalDate.of(2025, 1, 1), BigDecimal.TEN), Set.of()));
+    }
+
+    private void putCarQueries(Map<String, QueryCheck> queries) {
+        queries.put("CarService.search by brand and frame", new QueryCheck(
+                () -> carRepository.findAll(carSpecificationBuilder.build(
+                        new CarSearchParametersDto(new String[]{"Brand7", "Brand8"},
+                                new String[]{"SEDAN"}))), Set.of(CARS_BY_BRAND)));
+        // the id-ordered walk stops at the LIMIT, a four-value filter can`t narrow it further
+        queries.put("CarService.scroll by frame", new QueryCheck(
+                () -> scrollCars(new CarSearchParametersDto(null, new String[]{"SEDAN"}),
+                        Sort.by("id"), ScrollPosition.keyset()),
+                Set.of(PRIMARY_KEY), Set.of(CARS)));
+        queries.put("CarService.scroll by daily fee", new QueryCheck(
+                () -> scrollCars(new CarSearchParametersDto(null, null),
+                        Sort.by("dailyFee", "id"), ScrollPosition.forward(Map.of(
+                                "dailyFee", BigDecimal.valueOf(40), "id", 2L))),
+                Set.of(CARS_BY_DAILY_FEE)));
+        queries.put("CarRepository.findByIdForShare", new QueryCheck(
+                () -> carRepository.findByIdForShare(CAR_ID), Set.of(PRIMARY_KEY)));
+        queries.put("CarRepository.lockForShare", new QueryCheck(
+                () -> carRepository.lockForShare(CAR_ID), Set.of(PRIMARY_KEY)));
+        // a calendar rebuild locks every car on purpose
+        queries.put("CarRepository.lockAllForUpdate", new QueryCheck(
+                carRepository::lockAllForUpdate, Set.of(), Set.of(CARS)));
+        // every car is a candidate, only its calendar days are read by key
+        queries.put("CarRepository.findAvailable", new QueryCheck(
+                () -> carRepository.findAvailable(FROM, TO), Set.of(PRIMARY_KEY), Set.of(CARS)));
+        // the export streams the whole catalogue on purpose
+        queries.put("CarRepository.streamAll", new QueryCheck(() -> {
+            try (Stream<Car> cars = carRepository.streamAll()) {
+                cars.count();
+            }
+        }, Set.of(), Set.of(CARS)));
+        queries.put("CarRepository.insertAll", new QueryCheck(
+                () -> carRepository.insertAll(List.of(createCar())), Set.of()));
+    }
+
+    private void putAvailabilityQueries(Map<String, QueryCheck> queries) {
+        queries.put("CarBookedDayRepository.insertMissingDays", new QueryCheck(
+                () -> carBookedDayRepository.insertMissingDays(CAR_ID,
+                        LocalDate.of(2024, 12, 25), LocalDate.of(2025, 1, 5)), Set.of()));
+        queries.put("CarBookedDayRepository.bookDays", new QueryCheck(
+                () -> carBookedDayRepository.bookDays(CAR_ID, FROM, TO, 10),
+                Set.of(PRIMARY_KEY)));
+        queries.put("CarBookedDayRepository.extendDays", new QueryCheck(
+                () -> carBookedDayRepository.extendDays(CAR_ID, FROM, TO, 1),
+                Set.of(PRIMARY_KEY)));
+        queries.put("CarBookedDayRepository.releaseDays", new QueryCheck(
+                () -> carBookedDayRepository.releaseDays(CAR_ID, FROM, TO, 1),
+                Set.of(PRIMARY_KEY)));
+        queries.put("CarBookedDayRepository.findMaxUnitsBooked", new QueryCheck(
+                () -> carBookedDayRepository.findMaxUnitsBooked(CAR_ID, FROM, TO),
+                Set.of(PRIMARY_KEY)));
+        queries.put("CarBookedDayRepository.findBookedFrom", new QueryCheck(
+                () -> carBookedDayRepository.findBookedFrom(LocalDate.of(2024, 12, 29)),
+                Set.of(BOOKED_DAYS_BY_DATE)));
+        queries.put("CarBookedDayRepository.findBookedFrom by car", new QueryCheck(
+                () -> carBookedDayRepository.findBookedFrom(CAR_ID, LocalDate.of(2024, 12, 20)),
+                Set.of(PRIMARY_KEY)));
+        queries.put("CarBookedDayRepository.findCarIdsChangedWithin", new QueryCheck(
+                () -> carBookedDayRepository.findCarIdsChangedWithin(10_000L),
+                Set.of(CARS_BY_UPDATE, BOOKED_DAYS_BY_UPDATE)));
+        // a rebuild replaces the whole calendar from every rental on purpose
+        queries.put("CarAvailabilityService.rebuild", new QueryCheck(() -> {
+            carBookedDayRepository.deleteAllDays();
+            carBookedDayRepository.insertDaysFromRentals();
+        }, Set.of(), Set.of(CAR_BOOKED_DAYS, RENTALS)));
+    }
+
+    private void putPaymentQueries(Map<String, QueryCheck> queries) {
+        queries.put("PaymentRepository.findAllByUserId", new QueryCheck(
+                () -> paymentRepository.findAllByUserId(USER_ID, Payment.Status.PENDING, null,
+                        PageRequest.of(0, SCROLL_SIZE)),
+                Set.of(RENTALS_BY_USER, PAYMENTS_BY_RENTAL)));
+        queries.put("PaymentRepository.findBySessionId", new QueryCheck(
+                () -> paymentRepository.findBySessionId("session7"),
+                Set.of(PAYMENTS_BY_SESSION)));
+        queries.put("PaymentRepository.findByRentalIdAndTypeAndStatus", new QueryCheck(
+                () -> paymentRepository.findByRentalIdAndTypeAndStatus(RENTAL_ID,
+                        Payment.Type.PAYMENT, Payment.Status.PENDING),
+                Set.of(PAYMENTS_BY_RENTAL)));
+        queries.put("PaymentRepository.updateStatus", new QueryCheck(
+                () -> paymentRepository.updateStatus(List.of(1L, 2L), Payment.Status.PENDING,
+                        Payment.Status.EXPIRED), Set.of(PRIMARY_KEY)));
+        queries.put("PaymentRepository.updateStatusBySessionIds", new QueryCheck(
+                () -> paymentRepository.updateStatusBySessionIds(List.of("session1", "session2"),
+                        List.of(Payment.Status.PENDING, Payment.Status.EXPIRED),
+                        Payment.Status.PAID), Set.of(PAYMENTS_BY_SESSION)));
+        queries.put("StripeEventRepository.insertIfAbsent", new QueryCheck(
+                () -> stripeEventRepository.insertIfAbsent("evt_new",
+                        "checkout.session.completed", "session7", "paid"), Set.of()));
+        queries.put("StripeEventRepository.lockUnprocessed", new QueryCheck(
+                () -> stripeEventRepository.lockUnprocessed(50),
+                Set.of(STRIPE_EVENTS_UNPROCESSED)));
+        queries.put("StripeEventRepository.markProcessed", new QueryCheck(
+                () -> stripeEventRepository.markProcessed(List.of("evt_100", "evt_200")),
+                Set.of(PRIMARY_KEY)));
+        queries.put("StripeEventRepository.deleteProcessedBefore", new QueryCheck(
+                () -> stripeEventRepository.deleteProcessedBefore(86_400, 500),
+                Set.of(STRIPE_EVENTS_UNPROCESSED)));
+    }
+
+    private void putJobAndUserQueries(Map<String, QueryCheck> queries) {
+        queries.put("ScheduledJobRepository.createIfMissing", new QueryCheck(
+                () -> scheduledJobRepository.createIfMissing(JOB_NAME, LocalDate.EPOCH),
+                Set.of()));
+        queries.put("ScheduledJobRepository.acquireLease", new QueryCheck(
+                () -> scheduledJobRepository.acquireLease(JOB_NAME, LEASE_OWNER, 60),
+                Set.of(PRIMARY_KEY)));
+        queries.put("ScheduledJobRepository.advanceWatermark", new QueryCheck(
+                () -> scheduledJobRepository.advanceWatermark(JOB_NAME, LEASE_OWNER,
+                        LocalDate.of(2024, 10, 1), RENTAL_ID, 60), Set.of(PRIMARY_KEY)));
+        queries.put("ScheduledJobRepository.releaseLease", new QueryCheck(
+                () -> scheduledJobRepository.releaseLease(JOB_NAME, LEASE_OWNER),
+                Set.of(PRIMARY_KEY)));
+        queries.put("UserRepository.findByEmail", new QueryCheck(
+                () -> userRepository.findByEmail("user7@mail.com"), Set.of(USERS_BY_EMAIL)));
+        queries.put("UserRepository.existsByEmail", new QueryCheck(
+                () -> userRepository.existsByEmail("user7@mail.com"), Set.of(USERS_BY_EMAIL)));
+        queries.put("UserRepository.updatePassword", new QueryCheck(
+                () -> userRepository.updatePassword(USER_ID, "password"),
+                Set.of(PRIMARY_KEY)));
+        queries.put("RoleRepository.getByUserRole", new QueryCheck(
+                () -> roleRepository.getByUserRole(Role.UserRole.CUSTOMER),
+                Set.of(ROLES_BY_NAME)));
+        queries.put("RoleRepository.findByUserRole", new QueryCheck(
+                () -> roleRepository.findByUserRole(Role.UserRole.MANAGER),
+                Set.of(ROLES_BY_NAME)));
+    }
+
+    private List<Map<String, Object>> explain(RecordedStatement statement) {
+        return jdbcTemplate.queryForList("EXPLAIN " + statement.sql(),
+                statement.parameters().toArray());
+    }
+
+    private boolean isFullScan(Map<String, Object> row) {
+        String table = (String) row.get("table");
+        // derived tables and CTEs are scanned in memory, the row an INSERT writes is no read
+        return table != null && !table.startsWith("<")
+                && !WRITE_TARGETS.contains((String) row.get("select_type"))
+                && FULL_SCANS.contains((String) row.get("type"));
+    }
+
+    private Car createCar() {
+        Car car = new Car();
+        car.setModel("Model");
+        car.setBrand("Brand");
+        car.setCarFrame(Car.CarFrame.SEDAN);
+        car.setInventory(1);
+        car.setDailyFee(BigDecimal.TEN);
+        return car;
+    }
+
+    private void scrollRentals(RentalSearchParametersDto params) {
+        rentalRepository.findBy(rentalSpecificationBuilder.build(params),
+                query -> query.sortBy(Sort.by("id"))
+                        .limit(SCROLL_SIZE)
+                        .scroll(ScrollPosition.keyset()));
+    }
+
+    private void scrollCars(CarSearchParametersDto params, Sort sort, ScrollPosition position) {
+        carRepository.findBy(carSpecificationBuilder.build(params),
+                query -> query.sortBy(sort)
+                        .limit(SCROLL_SIZE)
+                        .scroll(position));
+    }
+
+    private record QueryCheck(Runnable query, Set<String> expectedKeys,
+                              Set<String> scannedTables) {
+        QueryCheck(Runnable query, Set<String> expectedKeys) {
+            this(query, expectedKeys, Set.of());
+        }
+    }
+
+    private record RecordedStatement(String sql, List<Object> parameters) {
+    }
+
+    @TestConfiguration
+    static class StatementRecorderConfig {
+        @Bean
+        static StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor(
+                ObjectProvider<StatementRecorder> statementRecorder) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource
+                            ? statementRecorder.getObject().wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    // keeps the SQL and bound values Hibernate sends, so EXPLAIN sees the real statement
+    static class StatementRecorder {
+        private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery",
+                "executeUpdate", "executeLargeUpdate", "executeBatch");
+
+        private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+        private volatile boolean recording;
+
+        List<RecordedStatement> record(Runnable query) {
+            statements.clear();
+            recording = true;
+            try {
+                query.run();
+            } finally {
+                recording = false;
+            }
+            return new ArrayList<>(statements);
+        }
+
+        DataSource wrap(DataSource dataSource) {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                        Object result = invoke(dataSource, method, args);
+                        return result instanceof Connection connection
+                                ? wrap(connection) : result;
+                    });
+        }
+
+        private Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        return recording && result instanceof PreparedStatement statement
+                                ? wrap(statement, (String) args[0]) : result;
+                    });
+        }
+
+        private PreparedStatement wrap(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && args != null
+                                && args.length > 1 && args[0] instanceof Integer index) {
+                            parameters.put(index,
+                                    method.getName().equals("setNull") ? null : args[1]);
+                        } else if (EXECUTE_METHODS.contains(method.getName())) {
+                            statements.add(new RecordedStatement(sql,
+                                    new ArrayList<>(parameters.values())));
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
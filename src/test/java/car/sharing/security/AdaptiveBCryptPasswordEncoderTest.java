@@ -0,0 +1,59 @@
+package car.sharing.security;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class AdaptiveBCryptPasswordEncoderTest {
+    private static final String PASSWORD = "password";
+    private static final int MIN_STRENGTH = 4;
+    private static final int MAX_STRENGTH = 8;
+
+    private final AdaptiveBCryptPasswordEncoder passwordEncoder =
+            new AdaptiveBCryptPasswordEncoder(6);
+
+    @Test
+    @DisplayName("Hash with the configured cost needs no upgrade")
+    void upgradeEncoding_SameStrength_ShouldReturnFalse() {
+        String encoded = passwordEncoder.encode(PASSWORD);
+
+        Assertions.assertFalse(passwordEncoder.upgradeEncoding(encoded));
+        Assertions.assertTrue(passwordEncoder.matches(PASSWORD, encoded));
+    }
+
+    @Test
+    @DisplayName("Hash with a lower cost is upgraded")
+    void upgradeEncoding_LowerStrength_ShouldReturnTrue() {
+        String weaker = new BCryptPasswordEncoder(5).encode(PASSWORD);
+
+        Assertions.assertTrue(passwordEncoder.upgradeEncoding(weaker));
+        Assertions.assertTrue(passwordEncoder.matches(PASSWORD, weaker));
+    }
+
+    @Test
+    @DisplayName("Hash with a higher cost is never downgraded")
+    void upgradeEncoding_HigherStrength_ShouldReturnFalse() {
+        String stronger = new BCryptPasswordEncoder(7).encode(PASSWORD);
+
+        Assertions.assertFalse(passwordEncoder.upgradeEncoding(stronger));
+        Assertions.assertTrue(passwordEncoder.matches(PASSWORD, stronger));
+    }
+
+    @Test
+    @DisplayName("Value that is not a BCrypt hash is never upgraded")
+    void upgradeEncoding_NotBcryptHash_ShouldReturnFalse() {
+        Assertions.assertFalse(passwordEncoder.upgradeEncoding(null));
+        Assertions.assertFalse(passwordEncoder.upgradeEncoding("plain"));
+    }
+
+    @Test
+    @DisplayName("Calibrated strength stays within the configured bounds")
+    void calibrate_ExtremeTargets_ShouldClampStrength() {
+        Assertions.assertEquals(MIN_STRENGTH, AdaptiveBCryptPasswordEncoder.calibrate(
+                Duration.ZERO, MIN_STRENGTH, MAX_STRENGTH));
+        Assertions.assertEquals(MAX_STRENGTH, AdaptiveBCryptPasswordEncoder.calibrate(
+                Duration.ofMinutes(1), MIN_STRENGTH, MAX_STRENGTH));
+    }
+}
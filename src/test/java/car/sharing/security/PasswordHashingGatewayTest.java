@@ -0,0 +1,65 @@
+package car.sharing.security;
+
+import car.sharing.exception.TooManyRequestsException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+public class PasswordHashingGatewayTest {
+    private static final int THREADS = 2;
+    private static final int QUEUE_CAPACITY = 2;
+
+    private ThreadPoolTaskExecutor executor;
+    private PasswordHashingGateway passwordHashingGateway;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(THREADS);
+        executor.setMaxPoolSize(THREADS);
+        executor.setQueueCapacity(QUEUE_CAPACITY);
+        executor.initialize();
+        passwordHashingGateway = new PasswordHashingGateway(executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Saturated hashing executor rejects new work instead of queueing it")
+    void submit_SaturatedExecutor_ShouldThrowTooManyRequests() throws Exception {
+        //Given
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<?>[] accepted = new CompletableFuture<?>[THREADS + QUEUE_CAPACITY];
+        for (int i = 0; i < accepted.length; i++) {
+            accepted[i] = passwordHashingGateway.submit(() -> await(release));
+        }
+
+        //When
+        Assertions.assertThrows(TooManyRequestsException.class,
+                () -> passwordHashingGateway.submit(() -> "rejected"));
+        release.countDown();
+
+        //Then
+        CompletableFuture.allOf(accepted).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals("accepted",
+                passwordHashingGateway.submit(() -> "accepted").get(10, TimeUnit.SECONDS));
+    }
+
+    private boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
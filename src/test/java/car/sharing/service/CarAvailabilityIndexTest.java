@@ -0,0 +1,123 @@
+package car.sharing.service;
+
+import car.sharing.dto.car.CarAvailabilitySearchParametersDto;
+import car.sharing.dto.car.CarDto;
+import car.sharing.dto.car.CarSearchParametersDto;
+import car.sharing.dto.car.CarSortOrder;
+import car.sharing.dto.car.CreateCarRequestDto;
+import car.sharing.dto.rental.RentalRequestDto;
+import car.sharing.model.Car;
+import car.sharing.service.impl.CarAvailabilityIndex;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+@Sql(scripts = {
+        "classpath:database/cars/add-cars.sql",
+        "classpath:database/users/add-users.sql"},
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {
+        "classpath:database/rentals/remove-rentals.sql",
+        "classpath:database/users/remove-users.sql",
+        "classpath:database/cars/remove-cars.sql"},
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@SpringBootTest
+public class CarAvailabilityIndexTest {
+    private static final Long USER_ID = 3L;
+    private static final Long BMW_ID = 3L;
+    private static final CarSearchParametersDto ALL_CARS = new CarSearchParametersDto(null, null);
+    private static final long UPDATE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    @Autowired
+    private CarAvailabilityIndex carAvailabilityIndex;
+    @Autowired
+    private CarAvailabilityService carAvailabilityService;
+    @Autowired
+    private CarService carService;
+    @Autowired
+    private RentalService rentalService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDate from;
+    private LocalDate to;
+
+    @BeforeEach
+    void setUp() {
+        carAvailabilityIndex.refresh();
+        from = LocalDate.now().plusDays(1);
+        to = from.plusDays(3);
+    }
+
+    @Test
+    @DisplayName("Search free cars in a price range sorted by daily fee")
+    void search_PriceRangeSortedByDailyFee_ShouldReturnMatchingCars() {
+        //When
+        List<CarDto> cars = carAvailabilityService.search(ALL_CARS,
+                new CarAvailabilitySearchParametersDto(from, to, BigDecimal.valueOf(45),
+                        BigDecimal.valueOf(60), CarSortOrder.DAILY_FEE));
+
+        //Then
+        Assertions.assertEquals(List.of(1L, 3L), getIds(cars));
+    }
+
+    @Test
+    @DisplayName("Booked car disappears from overlapping searches without a full refresh")
+    void search_AfterLastUnitIsBooked_ShouldExcludeCarOnlyForOverlappingPeriod()
+            throws Exception {
+        //Given
+        carService.updateCarById(BMW_ID, new CreateCarRequestDto("BMW", "e39",
+                Car.CarFrame.UNIVERSAL, 1, BigDecimal.valueOf(60)));
+
+        //When
+        rentalService.createRental(new RentalRequestDto(from, to, BMW_ID), USER_ID);
+
+        //Then
+        CarAvailabilitySearchParametersDto overlapping = new CarAvailabilitySearchParametersDto(
+                from.plusDays(1), to.plusDays(1), null, null, null);
+        CarAvailabilitySearchParametersDto later = new CarAvailabilitySearchParametersDto(
+                to, to.plusDays(2), null, null, null);
+        awaitSearchResult(overlapping, List.of(1L, 2L));
+        Assertions.assertEquals(List.of(1L, 2L, 3L),
+                getIds(carAvailabilityService.search(ALL_CARS, later)));
+    }
+
+    @Test
+    @DisplayName("Car changed by another node disappears after the next change poll")
+    void pollChanges_CarUpdatedWithoutLocalEvent_ShouldReloadCar() throws Exception {
+        //Given
+        CarAvailabilitySearchParametersDto availability = new CarAvailabilitySearchParametersDto(
+                from, to, null, null, null);
+        jdbcTemplate.update("UPDATE cars SET inventory = 0 WHERE id = ?", BMW_ID);
+
+        //When
+        carAvailabilityIndex.pollChanges();
+
+        //Then
+        awaitSearchResult(availability, List.of(1L, 2L));
+    }
+
+    private void awaitSearchResult(CarAvailabilitySearchParametersDto availability,
+                                   List<Long> expectedIds) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + UPDATE_TIMEOUT_MILLIS;
+        List<Long> actualIds = getIds(carAvailabilityService.search(ALL_CARS, availability));
+        while (!expectedIds.equals(actualIds) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            actualIds = getIds(carAvailabilityService.search(ALL_CARS, availability));
+        }
+        Assertions.assertEquals(expectedIds, actualIds);
+    }
+
+    private List<Long> getIds(List<CarDto> cars) {
+        return cars.stream().map(CarDto::id).toList();
+    }
+}
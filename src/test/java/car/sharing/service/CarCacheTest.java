@@ -0,0 +1,124 @@
+package car.sharing.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import car.sharing.dto.car.CarDto;
+import car.sharing.dto.car.CarSearchParametersDto;
+import car.sharing.dto.car.CreateCarRequestDto;
+import car.sharing.dto.rental.RentalRequestDto;
+import car.sharing.model.Car;
+import car.sharing.repository.car.CarRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.jdbc.Sql;
+
+@Sql(scripts = {
+        "classpath:database/cars/add-cars.sql",
+        "classpath:database/users/add-users.sql"},
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {
+        "classpath:database/rentals/remove-rentals.sql",
+        "classpath:database/users/remove-users.sql",
+        "classpath:database/cars/remove-cars.sql"},
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@SpringBootTest
+public class CarCacheTest {
+    private static final Long CAR_ID = 1L;
+    private static final Long USER_ID = 3L;
+
+    @Autowired
+    private CarService carService;
+    @Autowired
+    private RentalService rentalService;
+    @Autowired
+    private CacheManager cacheManager;
+    @SpyBean
+    private CarRepository carRepository;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        clearInvocations(carRepository);
+    }
+
+    @Test
+    @DisplayName("Repeated reads of one car hit the database once")
+    void findCarById_RepeatedReads_ShouldQueryDatabaseOnce() {
+        //When
+        CarDto first = carService.findCarById(CAR_ID);
+        CarDto second = carService.findCarById(CAR_ID);
+
+        //Then
+        Assertions.assertEquals(first, second);
+        verify(carRepository, times(1)).findById(CAR_ID);
+    }
+
+    @Test
+    @DisplayName("Searches that differ only in parameter order share one cache entry")
+    @SuppressWarnings("unchecked")
+    void search_ReorderedParameters_ShouldQueryDatabaseOnce() {
+        //When
+        carService.search(new CarSearchParametersDto(new String[] {"Q7", "3"},
+                new String[] {"SEDAN"}));
+        carService.search(new CarSearchParametersDto(new String[] {"3", "Q7", "3"},
+                new String[] {"SEDAN"}));
+
+        //Then
+        verify(carRepository, times(1)).findAll(any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Updating a car evicts its cached copy")
+    void updateCarById_CachedCar_ShouldReturnFreshCar() {
+        //Given
+        carService.findCarById(CAR_ID);
+        CreateCarRequestDto requestDto = new CreateCarRequestDto("Corolla",
+                "Toyota", Car.CarFrame.SEDAN, 10, BigDecimal.valueOf(60));
+
+        //When
+        carService.updateCarById(CAR_ID, requestDto);
+        CarDto carAfterUpdate = carService.findCarById(CAR_ID);
+
+        //Then
+        Assertions.assertEquals(requestDto.model(), carAfterUpdate.model());
+        Assertions.assertEquals(requestDto.inventory(), carAfterUpdate.inventory());
+    }
+
+    @Test
+    @DisplayName("Booking and returning a rental leave cached car reads up to date")
+    void createRental_CachedCarReads_ShouldMatchDatabaseWithoutEviction() {
+        //Given
+        PageRequest pageable = PageRequest.of(0, 10);
+        CarSearchParametersDto searchParameters = new CarSearchParametersDto(
+                new String[] {"Q7"}, null);
+        CarDto cachedCar = carService.findCarById(CAR_ID);
+        List<CarDto> cachedPage = carService.findAllCars(pageable);
+        List<CarDto> cachedSearch = carService.search(searchParameters);
+        LocalDate today = LocalDate.now();
+
+        //When
+        Long rentalId = rentalService.createRental(
+                new RentalRequestDto(today, today.plusDays(3), CAR_ID), USER_ID).id();
+        rentalService.actualReturnDate(rentalId);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        //Then
+        Assertions.assertEquals(carService.findCarById(CAR_ID), cachedCar);
+        Assertions.assertEquals(carService.findAllCars(pageable), cachedPage);
+        Assertions.assertEquals(carService.search(searchParameters), cachedSearch);
+    }
+}
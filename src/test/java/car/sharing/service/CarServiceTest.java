@@ -17,6 +17,7 @@ import car.sharing.mapper.impl.CarMapperImpl;
 import car.sharing.model.Car;
 import car.sharing.repository.car.CarRepository;
 import car.sharing.repository.car.CarSpecificationBuilder;
+import car.sharing.service.event.CarAvailabilityChangedEvent;
 import car.sharing.service.impl.CarServiceImpl;
 import java.math.BigDecimal;
 import java.util.List;
@@ -30,6 +31,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -43,6 +45,8 @@ public class CarServiceTest {
     private CarMapper carMapper = new CarMapperImpl();
     @Mock
     private CarSpecificationBuilder specificationBuilder;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private CarServiceImpl carService;
 
@@ -81,6 +85,7 @@ public class CarServiceTest {
         verify(carMapper, times(1)).toModel(requestDto);
         verify(carRepository, times(1)).save(car);
         verify(carMapper, times(1)).toDto(car);
+        verify(eventPublisher, times(1)).publishEvent(new CarAvailabilityChangedEvent(1L));
     }
 
     @Test
@@ -0,0 +1,24 @@
+package car.sharing.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+public final class LegacyPaymentAmount {
+    private static final Double FINE_MULTIPLIER = 1.5;
+
+    private LegacyPaymentAmount() {
+    }
+
+    public static BigDecimal calculate(BigDecimal dailyFee, LocalDate rentalDate,
+                                       LocalDate returnDate, LocalDate actualReturnDate) {
+        if (returnDate.equals(actualReturnDate) || actualReturnDate.isBefore(returnDate)) {
+            long rentalDays = ChronoUnit.DAYS.between(rentalDate, actualReturnDate);
+            return dailyFee.multiply(BigDecimal.valueOf(rentalDays));
+        }
+        long rentalDays = ChronoUnit.DAYS.between(rentalDate, returnDate);
+        long overdueDays = ChronoUnit.DAYS.between(returnDate, actualReturnDate);
+        BigDecimal fine = dailyFee.multiply(BigDecimal.valueOf(overdueDays * FINE_MULTIPLIER));
+        return dailyFee.multiply(BigDecimal.valueOf(rentalDays)).add(fine);
+    }
+}
@@ -0,0 +1,117 @@
+package car.sharing.service;
+
+import car.sharing.dto.payment.internal.DescriptionForStripeDto;
+import car.sharing.dto.payment.internal.ProviderSessionDto;
+import car.sharing.exception.PaymentProviderUnavailableException;
+import car.sharing.service.impl.LocalPaymentProvider;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LocalPaymentProviderTest {
+    private static final String CHECKOUT_URL = "http://localhost/checkout/";
+    private static final String IDEMPOTENCY_KEY = "rental-1-PAYMENT-100000";
+    private static final long SEED = 42;
+    private static final int REQUESTS = 1_000;
+
+    @Test
+    @DisplayName("Return the same session for the same idempotency key")
+    void createSession_SameKey_ShouldReturnSameSession() {
+        //Given
+        LocalPaymentProvider provider = createProvider(Duration.ZERO, 0);
+
+        //When
+        ProviderSessionDto first = provider.createSession(createDescription(),
+                IDEMPOTENCY_KEY).join();
+        ProviderSessionDto second = provider.createSession(createDescription(),
+                IDEMPOTENCY_KEY).join();
+        ProviderSessionDto other = provider.createSession(createDescription(),
+                "rental-2-PAYMENT-100000").join();
+
+        //Then
+        Assertions.assertEquals(first.id(), second.id());
+        Assertions.assertNotEquals(first.id(), other.id());
+        Assertions.assertEquals(CHECKOUT_URL + first.id(), first.url());
+        Assertions.assertNotNull(first.expiresAt());
+    }
+
+    @Test
+    @DisplayName("Complete the session only after the configured latency")
+    void createSession_ConfiguredLatency_ShouldCompleteAsynchronously() {
+        //Given
+        Duration latency = Duration.ofMillis(200);
+        LocalPaymentProvider provider = createProvider(latency, 0);
+
+        //When
+        long start = System.nanoTime();
+        CompletableFuture<ProviderSessionDto> session = provider.createSession(
+                createDescription(), IDEMPOTENCY_KEY);
+        boolean completedImmediately = session.isDone();
+        session.join();
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        //Then
+        Assertions.assertFalse(completedImmediately);
+        Assertions.assertTrue(elapsedMillis >= latency.toMillis(),
+                "Session completed after " + elapsedMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("Inject the configured share of failures for the same keys on every run")
+    void createSession_FailureRate_ShouldFailDeterministically() {
+        //Given
+        LocalPaymentProvider provider = createProvider(Duration.ZERO, 0.3);
+        LocalPaymentProvider sameSeedProvider = createProvider(Duration.ZERO, 0.3);
+
+        //When
+        List<Integer> failed = failedRequests(provider);
+        List<Integer> failedAgain = failedRequests(sameSeedProvider);
+
+        //Then
+        Assertions.assertEquals(failed, failedAgain);
+        Assertions.assertTrue(failed.size() > REQUESTS * 0.25 && failed.size() < REQUESTS * 0.35,
+                "Failed requests: " + failed.size());
+    }
+
+    @Test
+    @DisplayName("Reject a failure rate outside of zero and one")
+    void createProvider_InvalidFailureRate_ShouldThrowException() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> createProvider(Duration.ZERO, 1.5));
+    }
+
+    private List<Integer> failedRequests(LocalPaymentProvider provider) {
+        return IntStream.range(0, REQUESTS)
+                .filter(i -> isUnavailable(provider, "rental-" + i + "-PAYMENT-100000"))
+                .boxed()
+                .toList();
+    }
+
+    private boolean isUnavailable(LocalPaymentProvider provider, String idempotencyKey) {
+        try {
+            provider.createSession(createDescription(), idempotencyKey).join();
+            return false;
+        } catch (CompletionException e) {
+            Assertions.assertInstanceOf(PaymentProviderUnavailableException.class, e.getCause());
+            return true;
+        }
+    }
+
+    private LocalPaymentProvider createProvider(Duration latency, double failureRate) {
+        return new LocalPaymentProvider(latency, failureRate, SEED, CHECKOUT_URL);
+    }
+
+    private DescriptionForStripeDto createDescription() {
+        DescriptionForStripeDto description = new DescriptionForStripeDto();
+        description.setTotalAmount(BigDecimal.valueOf(1000));
+        description.setName("RentalS-ClassMercedes");
+        description.setDescription("This is a session for car rentals payment");
+        return description;
+    }
+}
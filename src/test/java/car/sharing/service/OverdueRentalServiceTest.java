@@ -0,0 +1,156 @@
+package car.sharing.service;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import car.sharing.model.OverdueRental;
+import car.sharing.model.ScheduledJob;
+import car.sharing.repository.job.ScheduledJobRepository;
+import car.sharing.repository.rental.OverdueRentalRepository;
+import car.sharing.repository.rental.RentalRepository;
+import car.sharing.service.impl.OverdueRentalServiceImpl;
+import car.sharing.service.pricing.PricingEngine;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Sql(scripts = {
+        "classpath:database/cars/add-cars.sql",
+        "classpath:database/users/add-users.sql",
+        "classpath:database/rentals/add-rentals.sql"},
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {
+        "classpath:database/rentals/remove-rentals.sql",
+        "classpath:database/users/remove-users.sql",
+        "classpath:database/cars/remove-cars.sql"},
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@SpringBootTest
+public class OverdueRentalServiceTest {
+    private static final Long TELEGRAM_ID = 1003L;
+    private static final Long USER_WITH_TELEGRAM_ID = 3L;
+    private static final int BATCH_SIZE = 1;
+    private static final int OVERDUE_RENTALS = 2;
+    private static final int NOTIFIED_RENTALS = 1;
+
+    @Autowired
+    private OverdueRentalService overdueRentalService;
+    @Autowired
+    private RentalRepository rentalRepository;
+    @Autowired
+    private OverdueRentalRepository overdueRentalRepository;
+    @Autowired
+    private ScheduledJobRepository scheduledJobRepository;
+    @Autowired
+    private PricingEngine pricingEngine;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockBean
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("UPDATE users SET telegram_id = ? WHERE id = ?",
+                TELEGRAM_ID, USER_WITH_TELEGRAM_ID);
+    }
+
+    @Test
+    @DisplayName("Active rentals past their return date are detected and notified once")
+    void detectOverdueRentals_RepeatedRuns_ShouldNotifyOnce() {
+        //When
+        int firstRun = overdueRentalService.detectOverdueRentals();
+        int secondRun = overdueRentalService.detectOverdueRentals();
+
+        //Then
+        Assertions.assertEquals(OVERDUE_RENTALS, firstRun);
+        Assertions.assertEquals(0, secondRun);
+        Assertions.assertEquals(OVERDUE_RENTALS, overdueRentalRepository.count());
+        OverdueRental overdueRental = overdueRentalRepository.findById(1L).orElseThrow();
+        Assertions.assertTrue(overdueRental.getAmountDue().compareTo(BigDecimal.ZERO) > 0);
+        verify(notificationService, times(1))
+                .sendNotification(contains("Rental #1 "), eq(TELEGRAM_ID));
+        verify(notificationService, never()).sendNotification(contains("Rental #3 "), anyLong());
+    }
+
+    @Test
+    @DisplayName("The next run resumes after the persisted watermark instead of rescanning")
+    void detectOverdueRentals_NextRun_ShouldResumeAfterWatermark() {
+        //Given
+        overdueRentalService.detectOverdueRentals();
+        jdbcTemplate.update("DELETE FROM overdue_rentals");
+
+        //When
+        int detected = overdueRentalService.detectOverdueRentals();
+
+        //Then
+        Assertions.assertEquals(0, detected);
+        ScheduledJob job = scheduledJobRepository.findById(OverdueRentalServiceImpl.JOB_NAME)
+                .orElseThrow();
+        Assertions.assertEquals(LocalDate.of(2024, 12, 15), job.getWatermarkDate());
+        Assertions.assertEquals(2L, job.getWatermarkId());
+        verify(notificationService, times(1)).sendNotification(
+                contains("Rental #1 of Q7 Mercedes was due on 2024-12-10. Please return the car, "
+                        + "amount due as of " + LocalDate.now()), eq(TELEGRAM_ID));
+    }
+
+    @Test
+    @DisplayName("Two nodes running the job at once detect every overdue rental exactly once")
+    void detectOverdueRentals_TwoNodesAtOnce_ShouldScanOnce() throws Exception {
+        //Given
+        OverdueRentalService firstNode = createNode();
+        OverdueRentalService secondNode = createNode();
+        CountDownLatch start = new CountDownLatch(1);
+
+        //When
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> {
+            await(start);
+            return firstNode.detectOverdueRentals();
+        });
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> {
+            await(start);
+            return secondNode.detectOverdueRentals();
+        });
+        start.countDown();
+        int detected = first.get(1, TimeUnit.MINUTES) + second.get(1, TimeUnit.MINUTES);
+        detected += firstNode.detectOverdueRentals() + secondNode.detectOverdueRentals();
+
+        //Then
+        Assertions.assertEquals(OVERDUE_RENTALS, detected);
+        Assertions.assertEquals(OVERDUE_RENTALS, overdueRentalRepository.count());
+        verify(notificationService, times(NOTIFIED_RENTALS))
+                .sendNotification(anyString(), anyLong());
+    }
+
+    private OverdueRentalService createNode() {
+        return new OverdueRentalServiceImpl(rentalRepository, overdueRentalRepository,
+                scheduledJobRepository, notificationService, pricingEngine, transactionManager,
+                BATCH_SIZE, Duration.ofMinutes(1));
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
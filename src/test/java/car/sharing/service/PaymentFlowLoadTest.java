@@ -0,0 +1,156 @@
+package car.sharing.service;
+
+import car.sharing.dto.payment.external.PaymentResponseDto;
+import car.sharing.dto.payment.internal.DescriptionForStripeDto;
+import car.sharing.dto.payment.internal.ProviderSessionDto;
+import car.sharing.dto.payment.internal.RequestPaymentToStripeDto;
+import car.sharing.dto.rental.RentalRequestDto;
+import car.sharing.model.Payment;
+import car.sharing.repository.payment.PaymentRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.jdbc.Sql;
+
+@Sql(scripts = {
+        "classpath:database/cars/add-cars.sql",
+        "classpath:database/users/add-users.sql"},
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {
+        "classpath:database/payments/remove-payments.sql",
+        "classpath:database/rentals/remove-rentals.sql",
+        "classpath:database/users/remove-users.sql",
+        "classpath:database/cars/remove-cars.sql"},
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@SpringBootTest(properties = {
+        "payment.provider=local",
+        "payment.provider.local.latency=" + PaymentFlowLoadTest.PROVIDER_LATENCY_MILLIS + "ms"})
+public class PaymentFlowLoadTest {
+    static final long PROVIDER_LATENCY_MILLIS = 50;
+    private static final Long CAR_ID = 1L;
+    private static final Long USER_ID = 3L;
+    private static final int FLOWS = 100;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private RentalService rentalService;
+    @Autowired
+    private PaymentService paymentService;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private InFlightCounter inFlightCounter;
+
+    @Test
+    @DisplayName("Booking to payment flows run end to end against the local payment provider")
+    void createPaymentSession_ConcurrentFlows_ShouldCreateOnePaymentPerRental()
+            throws Exception {
+        //Given
+        LocalDate from = LocalDate.now();
+        RentalRequestDto requestDto = new RentalRequestDto(from, from.plusDays(3), CAR_ID);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        //When
+        List<Future<PaymentResponseDto>> flows = new ArrayList<>();
+        for (int i = 0; i < FLOWS; i++) {
+            flows.add(executor.submit(() -> {
+                start.await();
+                Long rentalId = rentalService.createRental(requestDto, USER_ID).id();
+                rentalService.actualReturnDate(rentalId);
+                return paymentService.createPaymentSession(new RequestPaymentToStripeDto(
+                        Payment.Type.PAYMENT, rentalId)).join();
+            }));
+        }
+        start.countDown();
+        List<PaymentResponseDto> payments = new ArrayList<>();
+        for (Future<PaymentResponseDto> flow : flows) {
+            payments.add(flow.get(1, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+
+        //Then
+        Set<String> sessionIds = payments.stream()
+                .map(PaymentResponseDto::sessionId)
+                .collect(Collectors.toSet());
+        Assertions.assertEquals(FLOWS, sessionIds.size());
+        Assertions.assertTrue(sessionIds.stream().allMatch(id -> id.startsWith("cs_local_")));
+        Assertions.assertEquals(FLOWS, paymentRepository.count());
+        Assertions.assertEquals(0, inFlightCounter.current());
+        Assertions.assertTrue(inFlightCounter.max() > 1,
+                "Provider calls should overlap, but at most " + inFlightCounter.max()
+                        + " were in flight");
+    }
+
+    @TestConfiguration
+    static class InFlightCounterConfig {
+        @Bean
+        static InFlightCounter inFlightCounter() {
+            return new InFlightCounter();
+        }
+
+        @Bean
+        static BeanPostProcessor countingPaymentProviderPostProcessor(
+                ObjectProvider<InFlightCounter> inFlightCounter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof PaymentProvider paymentProvider
+                            ? inFlightCounter.getObject().wrap(paymentProvider) : bean;
+                }
+            };
+        }
+    }
+
+    // counts provider calls that have started but not completed yet
+    static class InFlightCounter {
+        private final AtomicInteger current = new AtomicInteger();
+        private final AtomicInteger max = new AtomicInteger();
+
+        int current() {
+            return current.get();
+        }
+
+        int max() {
+            return max.get();
+        }
+
+        PaymentProvider wrap(PaymentProvider paymentProvider) {
+            return new PaymentProvider() {
+                @Override
+                public CompletableFuture<ProviderSessionDto> createSession(
+                        DescriptionForStripeDto description, String idempotencyKey) {
+                    return track(paymentProvider.createSession(description, idempotencyKey));
+                }
+
+                @Override
+                public CompletableFuture<Boolean> expireSession(String sessionId) {
+                    return track(paymentProvider.expireSession(sessionId));
+                }
+            };
+        }
+
+        private <T> CompletableFuture<T> track(CompletableFuture<T> call) {
+            max.accumulateAndGet(current.incrementAndGet(), Math::max);
+            return call.whenComplete((result, e) -> current.decrementAndGet());
+        }
+    }
+}
@@ -2,13 +2,20 @@ package car.sharing.service;
 
 import static car.sharing.model.Car.CarFrame.UNIVERSAL;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import car.sharing.dto.payment.external.PaymentResponseDto;
 import car.sharing.dto.payment.external.PaymentResponseForTelegram;
+import car.sharing.dto.payment.external.PaymentSearchParametersDto;
 import car.sharing.dto.payment.internal.DescriptionForStripeDto;
+import car.sharing.dto.payment.internal.ProviderSessionDto;
 import car.sharing.dto.payment.internal.RequestPaymentToStripeDto;
 import car.sharing.exception.EntityNotFoundException;
 import car.sharing.mapper.PaymentMapper;
@@ -17,34 +24,40 @@ import car.sharing.model.Car;
 import car.sharing.model.Payment;
 import car.sharing.model.Rental;
 import car.sharing.model.User;
-import car.sharing.repository.car.CarRepository;
 import car.sharing.repository.payment.PaymentRepository;
+import car.sharing.repository.rental.RentalPaymentDetails;
 import car.sharing.repository.rental.RentalRepository;
 import car.sharing.service.impl.PaymentServiceImpl;
-import car.sharing.service.impl.StripeService;
-import car.sharing.service.strategy.PaymentAmountService;
-import car.sharing.service.strategy.PaymentStrategy;
-import com.stripe.model.checkout.Session;
+import car.sharing.service.pricing.PricingEngine;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 public class PaymentServiceTest {
     private static final int DEFAULT_CAR_INVENTORY = 100;
     private static final String DEFAULT_SESSION_ID = "sessionId";
+    private static final String IDEMPOTENCY_KEY = "rental-1-PAYMENT-0-100000";
+    private static final String RETRY_IDEMPOTENCY_KEY = "rental-1-PAYMENT-1-100000";
 
     @Mock
     private PaymentRepository paymentRepository;
@@ -53,14 +66,11 @@ public class PaymentServiceTest {
     @Mock
     private RentalRepository rentalRepository;
     @Mock
-    private CarRepository carRepository;
+    private PricingEngine pricingEngine;
     @Mock
-    private PaymentStrategy paymentStrategy;
+    private PaymentProvider paymentProvider;
     @Mock
-    private PaymentAmountService paymentAmountService;
-    @Mock
-    private StripeService stripeService;
-    @InjectMocks
+    private PlatformTransactionManager transactionManager;
     private PaymentServiceImpl paymentService;
 
     private User user;
@@ -72,6 +82,10 @@ public class PaymentServiceTest {
 
     @BeforeEach
     void setUp() {
+        paymentService = new PaymentServiceImpl(paymentRepository, paymentMapper,
+                rentalRepository, paymentProvider, pricingEngine, Runnable::run,
+                transactionManager);
+
         user = new User();
         user.setId(1L);
         user.setEmail("eto@gmail.com");
@@ -124,26 +138,24 @@ public class PaymentServiceTest {
     public void getPayments_WhenPaymentsExist_ShouldReturnPaymentDtos() {
         // Given
         Long userId = 1L;
-        List<Rental> rentals = List.of(rental, rental2);
-        List<Payment> payments = List.of(payment, payment2);
+        Pageable pageable = PageRequest.of(0, 20);
+        PaymentSearchParametersDto params = new PaymentSearchParametersDto(
+                Payment.Status.PENDING, null);
+        List<PaymentResponseDto> paymentsDtoExpected = List.of(
+                createPaymentDto(payment), createPaymentDto(payment2));
 
-        when(rentalRepository.findAllByUserId(userId)).thenReturn(rentals);
-        when(paymentRepository.findAllByRentalsId(rentals.stream().map(Rental::getId).toList()))
-                .thenReturn(payments);
-        when(paymentMapper.toDto(any(Payment.class)))
-                .thenReturn(createPaymentDto(payment), createPaymentDto(payment2));
+        when(paymentRepository.findAllByUserId(userId, Payment.Status.PENDING, null, pageable))
+                .thenReturn(paymentsDtoExpected);
 
         // When
-        List<PaymentResponseDto> paymentsDtoExpected = List.of(
-                createPaymentDto(payment), createPaymentDto(payment2));
-        List<PaymentResponseDto> paymentsDtoActual = paymentService.getPayments(userId);
+        List<PaymentResponseDto> paymentsDtoActual = paymentService.getPayments(userId,
+                params, pageable);
 
         // Then
         Assertions.assertEquals(paymentsDtoExpected, paymentsDtoActual);
-        verify(rentalRepository, times(1)).findAllByUserId(userId);
         verify(paymentRepository, times(1))
-                .findAllByRentalsId(rentals.stream().map(Rental::getId).toList());
-        verify(paymentMapper, times(1)).toDto(payment);
+                .findAllByUserId(userId, Payment.Status.PENDING, null, pageable);
+        verifyNoInteractions(rentalRepository);
     }
 
     @Test
@@ -151,9 +163,8 @@ public class PaymentServiceTest {
     public void createPaymentSession_ValidRequestPaymentToStripeDto_ShouldReturnPaymentResponseDto()
             throws MalformedURLException {
         //Given
-        Session stripeSession = new Session();
-        stripeSession.setId("sessionId");
-        stripeSession.setUrl("http://stripe.url");
+        ProviderSessionDto stripeSession = new ProviderSessionDto("sessionId",
+                "http://stripe.url", null);
 
         DescriptionForStripeDto descriptionForSession = new DescriptionForStripeDto();
         descriptionForSession.setName("Rental" + car.getModel() + car.getBrand());
@@ -163,35 +174,240 @@ public class PaymentServiceTest {
         payment.setId(null);
         payment.setSessionUrl(new URL("http://stripe.url"));
         payment.setTotalPrice(BigDecimal.valueOf(1000));
-        
-        Long carId = 1L;
-
-        when(rentalRepository.findById(1L)).thenReturn(Optional.of(rental));
-        when(paymentStrategy.getPaymentAmount(rental)).thenReturn(paymentAmountService);
-        when(paymentAmountService.calculateTotalAmountByRentalDays(
-            rental.getCar().getDailyFee(), rental))
-                .thenReturn(BigDecimal.valueOf(1000));
-        when(stripeService.createStripeSession(descriptionForSession))
-                .thenReturn(stripeSession);
+
+        when(rentalRepository.findPaymentDetailsById(1L))
+                .thenReturn(Optional.of(new RentalPaymentDetails(rental, List.of())));
+        when(pricingEngine.price(rental)).thenReturn(BigDecimal.valueOf(1000));
+        when(paymentProvider.createSession(descriptionForSession, IDEMPOTENCY_KEY))
+                .thenReturn(CompletableFuture.completedFuture(stripeSession));
         when(paymentRepository.save(payment)).thenReturn(payment);
-        when(carRepository.findById(carId)).thenReturn(Optional.of(car));
 
         //When
         PaymentResponseDto paymentDto = createPaymentDto(payment);
         RequestPaymentToStripeDto stripeDto = new RequestPaymentToStripeDto(
                 Payment.Type.PAYMENT, rental.getId());
 
-        PaymentResponseDto paymentSessionActual = paymentService.createPaymentSession(stripeDto);
+        PaymentResponseDto paymentSessionActual = paymentService.createPaymentSession(stripeDto)
+                .join();
 
         //Then
         Assertions.assertEquals(paymentDto, paymentSessionActual);
-        verify(rentalRepository, times(1)).findById(1L);
-        verify(paymentStrategy, times(1)).getPaymentAmount(rental);
-        verify(paymentAmountService, times(1))
-                .calculateTotalAmountByRentalDays(rental.getCar().getDailyFee(), rental);
-        verify(stripeService, times(1)).createStripeSession(descriptionForSession);
+        verify(rentalRepository, times(1)).findPaymentDetailsById(1L);
+        verify(pricingEngine, times(1)).price(rental);
+        verify(paymentProvider, times(1)).createSession(descriptionForSession,
+                IDEMPOTENCY_KEY);
         verify(paymentRepository, times(1)).save(payment);
-        verify(carRepository, times(2)).findById(carId);
+    }
+
+    @Test
+    @DisplayName("Store the new payment on the persistence executor inside a transaction")
+    public void createPaymentSession_ProviderResponds_ShouldSaveInTransactionOffProviderThread() {
+        //Given
+        List<Runnable> persistenceTasks = new ArrayList<>();
+        paymentService = new PaymentServiceImpl(paymentRepository, paymentMapper,
+                rentalRepository, paymentProvider, pricingEngine, persistenceTasks::add,
+                transactionManager);
+        ProviderSessionDto stripeSession = new ProviderSessionDto("sessionId",
+                "http://stripe.url", null);
+
+        when(rentalRepository.findPaymentDetailsById(1L))
+                .thenReturn(Optional.of(new RentalPaymentDetails(rental, List.of())));
+        when(pricingEngine.price(rental)).thenReturn(BigDecimal.valueOf(1000));
+        when(paymentProvider.createSession(any(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(stripeSession));
+
+        //When
+        CompletableFuture<PaymentResponseDto> paymentSession = paymentService
+                .createPaymentSession(new RequestPaymentToStripeDto(
+                        Payment.Type.PAYMENT, rental.getId()));
+        boolean savedBeforePersistenceTask = paymentSession.isDone();
+        persistenceTasks.forEach(Runnable::run);
+
+        //Then
+        Assertions.assertFalse(savedBeforePersistenceTask);
+        Assertions.assertEquals("sessionId", paymentSession.join().sessionId());
+        InOrder inOrder = inOrder(transactionManager, paymentRepository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(paymentRepository).save(any());
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Return a pending payment with a valid session without calling Stripe")
+    public void createPaymentSession_ValidPendingPayment_ShouldReusePayment() {
+        //Given
+        payment.setTotalPrice(BigDecimal.valueOf(1000));
+        payment.setSessionExpiresAt(Instant.now().plus(Duration.ofHours(1)));
+
+        when(rentalRepository.findPaymentDetailsById(1L))
+                .thenReturn(Optional.of(new RentalPaymentDetails(rental, List.of(payment))));
+        when(pricingEngine.price(rental)).thenReturn(new BigDecimal("1000.00"));
+
+        //When
+        PaymentResponseDto paymentSessionActual = paymentService.createPaymentSession(
+                new RequestPaymentToStripeDto(Payment.Type.PAYMENT, rental.getId())).join();
+
+        //Then
+        Assertions.assertEquals(createPaymentDto(payment), paymentSessionActual);
+        verifyNoInteractions(paymentProvider);
+        verify(paymentRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Expire a pending payment with an outdated session and create a new one")
+    public void createPaymentSession_ExpiredPendingPayment_ShouldCreateNewSession() {
+        //Given
+        payment.setTotalPrice(BigDecimal.valueOf(1000));
+        payment.setSessionExpiresAt(Instant.now().minus(Duration.ofMinutes(1)));
+
+        when(rentalRepository.findPaymentDetailsById(1L))
+                .thenReturn(Optional.of(new RentalPaymentDetails(rental, List.of(payment))));
+        when(pricingEngine.price(rental)).thenReturn(BigDecimal.valueOf(1000));
+        when(paymentProvider.createSession(any(), anyString()))
+                .thenReturn(new CompletableFuture<>());
+
+        //When
+        paymentService.createPaymentSession(
+                new RequestPaymentToStripeDto(Payment.Type.PAYMENT, rental.getId()));
+
+        //Then
+        verify(paymentRepository, times(1)).updateStatus(List.of(payment.getId()),
+                Payment.Status.PENDING, Payment.Status.EXPIRED);
+        verify(paymentProvider, times(1)).createSession(any(), anyString());
+    }
+
+    @Test
+    @DisplayName("Use a new idempotency key after a canceled payment")
+    public void createPaymentSession_CanceledPayment_ShouldUseNewIdempotencyKey() {
+        //Given
+        payment.setStatus(Payment.Status.CANCELED);
+        payment.setTotalPrice(BigDecimal.valueOf(1000));
+        ProviderSessionDto stripeSession = new ProviderSessionDto("newSessionId",
+                "http://stripe.url", null);
+
+        when(rentalRepository.findPaymentDetailsById(1L))
+                .thenReturn(Optional.of(new RentalPaymentDetails(rental, List.of(payment))));
+        when(pricingEngine.price(rental)).thenReturn(BigDecimal.valueOf(1000));
+        when(paymentProvider.createSession(any(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(stripeSession));
+
+        //When
+        PaymentResponseDto paymentSessionActual = paymentService.createPaymentSession(
+                new RequestPaymentToStripeDto(Payment.Type.PAYMENT, rental.getId())).join();
+
+        //Then
+        Assertions.assertEquals("newSessionId", paymentSessionActual.sessionId());
+        verify(paymentProvider, times(1)).createSession(any(), eq(RETRY_IDEMPOTENCY_KEY));
+        verify(paymentProvider, never()).createSession(any(), eq(IDEMPOTENCY_KEY));
+    }
+
+    @Test
+    @DisplayName("Use a new idempotency key after expiring a session at the same price")
+    public void createPaymentSession_ExpiredSessionWithSamePrice_ShouldUseNewIdempotencyKey() {
+        //Given
+        payment.setTotalPrice(BigDecimal.valueOf(1000));
+        payment.setSessionExpiresAt(Instant.now().plus(Duration.ofMinutes(1)));
+        ProviderSessionDto stripeSession = new ProviderSessionDto("newSessionId",
+                "http://stripe.url", null);
+
+        when(rentalRepository.findPaymentDetailsById(1L))
+                .thenReturn(Optional.of(new RentalPaymentDetails(rental, List.of(payment))));
+        when(pricingEngine.price(rental)).thenReturn(BigDecimal.valueOf(1000));
+        when(paymentProvider.expireSession(DEFAULT_SESSION_ID))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(paymentProvider.createSession(any(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(stripeSession));
+
+        //When
+        PaymentResponseDto paymentSessionActual = paymentService.createPaymentSession(
+                new RequestPaymentToStripeDto(Payment.Type.PAYMENT, rental.getId())).join();
+
+        //Then
+        Assertions.assertEquals("newSessionId", paymentSessionActual.sessionId());
+        InOrder inOrder = inOrder(paymentProvider);
+        inOrder.verify(paymentProvider).expireSession(DEFAULT_SESSION_ID);
+        inOrder.verify(paymentProvider).createSession(any(), eq(RETRY_IDEMPOTENCY_KEY));
+    }
+
+    @Test
+    @DisplayName("Expire a superseded session at the provider before creating a new one")
+    public void createPaymentSession_PendingPaymentWithOtherPrice_ShouldExpireProviderSession() {
+        //Given
+        payment.setSessionExpiresAt(Instant.now().plus(Duration.ofHours(1)));
+        ProviderSessionDto stripeSession = new ProviderSessionDto("newSessionId",
+                "http://stripe.url", null);
+
+        when(rentalRepository.findPaymentDetailsById(1L))
+                .thenReturn(Optional.of(new RentalPaymentDetails(rental, List.of(payment))));
+        when(pricingEngine.price(rental)).thenReturn(BigDecimal.valueOf(1000));
+        when(paymentProvider.expireSession(DEFAULT_SESSION_ID))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(paymentProvider.createSession(any(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(stripeSession));
+
+        //When
+        PaymentResponseDto paymentSessionActual = paymentService.createPaymentSession(
+                new RequestPaymentToStripeDto(Payment.Type.PAYMENT, rental.getId())).join();
+
+        //Then
+        Assertions.assertEquals("newSessionId", paymentSessionActual.sessionId());
+        InOrder inOrder = inOrder(paymentProvider, paymentRepository);
+        inOrder.verify(paymentProvider).expireSession(DEFAULT_SESSION_ID);
+        inOrder.verify(paymentRepository).updateStatus(List.of(payment.getId()),
+                Payment.Status.PENDING, Payment.Status.EXPIRED);
+        inOrder.verify(paymentProvider).createSession(any(), anyString());
+    }
+
+    @Test
+    @DisplayName("Keep a pending payment whose session was completed before it could be expired")
+    public void createPaymentSession_PendingPaymentAlreadyCompleted_ShouldNotCreateSession() {
+        //Given
+        payment.setSessionExpiresAt(Instant.now().plus(Duration.ofHours(1)));
+
+        when(rentalRepository.findPaymentDetailsById(1L))
+                .thenReturn(Optional.of(new RentalPaymentDetails(rental, List.of(payment))));
+        when(pricingEngine.price(rental)).thenReturn(BigDecimal.valueOf(1000));
+        when(paymentProvider.expireSession(DEFAULT_SESSION_ID))
+                .thenReturn(CompletableFuture.completedFuture(false));
+
+        //When
+        PaymentResponseDto paymentSessionActual = paymentService.createPaymentSession(
+                new RequestPaymentToStripeDto(Payment.Type.PAYMENT, rental.getId())).join();
+
+        //Then
+        Assertions.assertEquals(createPaymentDto(payment), paymentSessionActual);
+        verify(paymentProvider, never()).createSession(any(), anyString());
+        verify(paymentRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Share one Stripe call between duplicate in-flight requests")
+    public void createPaymentSession_DuplicateInFlightRequests_ShouldCallStripeOnce() {
+        //Given
+        ProviderSessionDto stripeSession = new ProviderSessionDto("sessionId",
+                "http://stripe.url", null);
+        CompletableFuture<ProviderSessionDto> stripeResponse = new CompletableFuture<>();
+
+        when(rentalRepository.findPaymentDetailsById(1L))
+                .thenReturn(Optional.of(new RentalPaymentDetails(rental, List.of())));
+        when(pricingEngine.price(rental)).thenReturn(BigDecimal.valueOf(1000));
+        when(paymentProvider.createSession(any(), anyString())).thenReturn(stripeResponse);
+        RequestPaymentToStripeDto stripeDto = new RequestPaymentToStripeDto(
+                Payment.Type.PAYMENT, rental.getId());
+
+        //When
+        CompletableFuture<PaymentResponseDto> first = paymentService
+                .createPaymentSession(stripeDto);
+        CompletableFuture<PaymentResponseDto> second = paymentService
+                .createPaymentSession(stripeDto);
+        stripeResponse.complete(stripeSession);
+
+        //Then
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals("sessionId", first.join().sessionId());
+        verify(rentalRepository, times(1)).findPaymentDetailsById(1L);
+        verify(paymentProvider, times(1)).createSession(any(), anyString());
+        verify(paymentRepository, times(1)).save(any());
     }
 
     @Test
@@ -0,0 +1,97 @@
+package car.sharing.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import car.sharing.dto.payment.external.PaymentResponseDto;
+import car.sharing.dto.payment.internal.ProviderSessionDto;
+import car.sharing.dto.payment.internal.RequestPaymentToStripeDto;
+import car.sharing.model.Payment;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.concurrent.CompletableFuture;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.jdbc.Sql;
+
+@Sql(scripts = {
+        "classpath:database/cars/add-cars.sql",
+        "classpath:database/users/add-users.sql",
+        "classpath:database/rentals/add-rentals.sql",
+        "classpath:database/payments/add-payments.sql"},
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {
+        "classpath:database/payments/remove-payments.sql",
+        "classpath:database/rentals/remove-rentals.sql",
+        "classpath:database/users/remove-users.sql",
+        "classpath:database/cars/remove-cars.sql"},
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@SpringBootTest
+public class PaymentStatementCountTest {
+    private static final Long RETURNED_RENTAL_ID = 3L;
+    private static final String PENDING_SESSION_ID = "sessionId1";
+
+    @Autowired
+    private PaymentService paymentService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @MockBean
+    private PaymentProvider paymentProvider;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Creating a payment session reads the rental once and inserts the payment")
+    void createPaymentSession_ReturnedRental_ShouldIssueTwoStatements() {
+        //Given
+        ProviderSessionDto session = new ProviderSessionDto("sessionId3",
+                "http://stripe3.url", null);
+        when(paymentProvider.createSession(any(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(session));
+
+        //When
+        PaymentResponseDto payment = paymentService.createPaymentSession(
+                new RequestPaymentToStripeDto(Payment.Type.PAYMENT, RETURNED_RENTAL_ID)).join();
+
+        //Then
+        Assertions.assertEquals("sessionId3", payment.sessionId());
+        Assertions.assertEquals(1, statistics.getQueryExecutionCount());
+        Assertions.assertEquals(1, statistics.getEntityInsertCount());
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Confirming a payment reads and updates it once")
+    void successPayment_PendingPayment_ShouldIssueTwoStatements() {
+        //When
+        paymentService.successPayment(PENDING_SESSION_ID);
+
+        //Then
+        Assertions.assertEquals(1, statistics.getEntityUpdateCount());
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Canceling a payment reads and updates it once")
+    void cancelPayment_PendingPayment_ShouldIssueTwoStatements() {
+        //When
+        paymentService.cancelPayment(PENDING_SESSION_ID);
+
+        //Then
+        Assertions.assertEquals(1, statistics.getEntityUpdateCount());
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,153 @@
+package car.sharing.service;
+
+import car.sharing.model.Car;
+import car.sharing.model.Rental;
+import car.sharing.service.pricing.PricingEngine;
+import car.sharing.service.pricing.Tariff;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PricingEngineTest {
+    private static final long SEED = 20_241_018L;
+    private static final int SAMPLES = 10_000;
+    private static final LocalDate MONDAY = LocalDate.of(2024, 10, 14);
+    private static final BigDecimal DAILY_FEE = new BigDecimal("100.00");
+
+    private final PricingEngine standardEngine = new PricingEngine(Tariff.STANDARD);
+
+    @Test
+    @DisplayName("Standard tariff matches the legacy amounts for random rentals")
+    void price_RandomRentals_ShouldMatchLegacyAmounts() {
+        //Given
+        Random random = new Random(SEED);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            Rental rental = randomRental(random);
+
+            //When
+            BigDecimal actual = standardEngine.price(rental);
+
+            //Then
+            BigDecimal expected = LegacyPaymentAmount.calculate(rental.getCar().getDailyFee(),
+                    rental.getRentalDate(), rental.getReturnDate(), rental.getActualReturnDate())
+                    .setScale(2, RoundingMode.HALF_UP);
+            Assertions.assertEquals(expected, actual, () -> "Rental " + describe(rental));
+        }
+    }
+
+    @Test
+    @DisplayName("Batch pricing returns the same cents as pricing rentals one by one")
+    void priceInCents_RandomRentals_ShouldMatchSinglePrices() {
+        //Given
+        Random random = new Random(SEED);
+        List<Rental> rentals = new ArrayList<>();
+        for (int i = 0; i < SAMPLES; i++) {
+            rentals.add(randomRental(random));
+        }
+
+        //When
+        long[] prices = standardEngine.priceInCents(rentals);
+
+        //Then
+        Assertions.assertEquals(rentals.size(), prices.length);
+        for (int i = 0; i < prices.length; i++) {
+            Assertions.assertEquals(PricingEngine.toAmount(prices[i]),
+                    standardEngine.price(rentals.get(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Weekend days are charged with the weekend rate")
+    void price_WeekendRate_ShouldChargeWeekendDays() {
+        //Given
+        PricingEngine engine = new PricingEngine(
+                new Tariff(200, List.of(), 150, Map.of()));
+        Rental rental = createRental(Car.CarFrame.SEDAN, MONDAY, MONDAY.plusDays(7),
+                MONDAY.plusDays(7));
+
+        //When
+        BigDecimal actual = engine.price(rental);
+
+        //Then
+        Assertions.assertEquals(new BigDecimal("900.00"), actual);
+    }
+
+    @Test
+    @DisplayName("The largest matching long rental discount is applied to the rental days")
+    void price_LongRental_ShouldApplyLargestMatchingDiscount() {
+        //Given
+        PricingEngine engine = new PricingEngine(new Tariff(100, List.of(
+                new Tariff.LongRentalDiscount(7, 5),
+                new Tariff.LongRentalDiscount(30, 15)), 150, Map.of()));
+        Rental weekRental = createRental(Car.CarFrame.SEDAN, MONDAY, MONDAY.plusDays(7),
+                MONDAY.plusDays(7));
+        Rental monthRental = createRental(Car.CarFrame.SEDAN, MONDAY, MONDAY.plusDays(30),
+                MONDAY.plusDays(31));
+
+        //When
+        BigDecimal weekPrice = engine.price(weekRental);
+        BigDecimal monthPrice = engine.price(monthRental);
+
+        //Then
+        Assertions.assertEquals(new BigDecimal("665.00"), weekPrice);
+        Assertions.assertEquals(new BigDecimal("2700.00"), monthPrice);
+    }
+
+    @Test
+    @DisplayName("Fines use the multiplier of the car frame and round once to cents")
+    void price_LateRentalWithFrameMultiplier_ShouldUseExactCents() {
+        //Given
+        PricingEngine engine = new PricingEngine(new Tariff(100, List.of(), 150,
+                Map.of(Car.CarFrame.SUV, 133)));
+        Rental suvRental = createRental(Car.CarFrame.SUV, MONDAY, MONDAY.plusDays(1),
+                MONDAY.plusDays(4));
+        Rental sedanRental = createRental(Car.CarFrame.SEDAN, MONDAY, MONDAY.plusDays(1),
+                MONDAY.plusDays(4));
+        suvRental.getCar().setDailyFee(new BigDecimal("0.11"));
+
+        //When
+        BigDecimal suvPrice = engine.price(suvRental);
+        BigDecimal sedanPrice = engine.price(sedanRental);
+
+        //Then
+        Assertions.assertEquals(new BigDecimal("0.55"), suvPrice);
+        Assertions.assertEquals(new BigDecimal("550.00"), sedanPrice);
+    }
+
+    private Rental randomRental(Random random) {
+        LocalDate rentalDate = MONDAY.plusDays(random.nextInt(365));
+        LocalDate returnDate = rentalDate.plusDays(random.nextInt(60));
+        LocalDate actualReturnDate = rentalDate.plusDays(random.nextInt(90));
+        Car.CarFrame[] carFrames = Car.CarFrame.values();
+        Rental rental = createRental(carFrames[random.nextInt(carFrames.length)], rentalDate,
+                returnDate, actualReturnDate);
+        rental.getCar().setDailyFee(BigDecimal.valueOf(1 + random.nextInt(1_000_000), 2));
+        return rental;
+    }
+
+    private Rental createRental(Car.CarFrame carFrame, LocalDate rentalDate,
+                                LocalDate returnDate, LocalDate actualReturnDate) {
+        Car car = new Car();
+        car.setCarFrame(carFrame);
+        car.setDailyFee(DAILY_FEE);
+        Rental rental = new Rental();
+        rental.setCar(car);
+        rental.setRentalDate(rentalDate);
+        rental.setReturnDate(returnDate);
+        rental.setActualReturnDate(actualReturnDate);
+        return rental;
+    }
+
+    private String describe(Rental rental) {
+        return rental.getRentalDate() + " - " + rental.getReturnDate() + " returned "
+                + rental.getActualReturnDate() + " for " + rental.getCar().getDailyFee();
+    }
+}
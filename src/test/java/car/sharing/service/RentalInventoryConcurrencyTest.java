@@ -0,0 +1,123 @@
+package car.sharing.service;
+
+import car.sharing.dto.rental.RentalRequestDto;
+import car.sharing.exception.CarNotAvailableException;
+import car.sharing.model.Car;
+import car.sharing.repository.availability.CarBookedDayRepository;
+import car.sharing.repository.car.CarRepository;
+import car.sharing.repository.rental.RentalRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+
+@Sql(scripts = {
+        "classpath:database/cars/add-cars.sql",
+        "classpath:database/users/add-users.sql"},
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {
+        "classpath:database/rentals/remove-rentals.sql",
+        "classpath:database/users/remove-users.sql",
+        "classpath:database/cars/remove-cars.sql"},
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@SpringBootTest
+public class RentalInventoryConcurrencyTest {
+    private static final Long CAR_ID = 1L;
+    private static final Long USER_ID = 3L;
+    private static final int CAR_INVENTORY = 100;
+    private static final int BOOKINGS = 300;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private RentalService rentalService;
+    @Autowired
+    private CarRepository carRepository;
+    @Autowired
+    private RentalRepository rentalRepository;
+    @Autowired
+    private CarBookedDayRepository carBookedDayRepository;
+    @Autowired
+    private CarAvailabilityService carAvailabilityService;
+
+    @Test
+    @DisplayName("Concurrent bookings of one car never oversell its inventory")
+    void createRental_ConcurrentBookingsOfOneCar_ShouldNeverOversell() throws Exception {
+        //Given
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(3);
+        RentalRequestDto requestDto = new RentalRequestDto(from, to, CAR_ID);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        //When
+        List<Future<?>> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(executor.submit(() -> {
+                start.await();
+                try {
+                    rentalService.createRental(requestDto, USER_ID);
+                    booked.incrementAndGet();
+                } catch (CarNotAvailableException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> booking : bookings) {
+            booking.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        //Then
+        Car car = carRepository.findById(CAR_ID).orElseThrow();
+        long rentalsOfCar = rentalRepository.findAll().stream()
+                .filter(rental -> rental.getCar().getId().equals(CAR_ID))
+                .count();
+        Assertions.assertEquals(CAR_INVENTORY, booked.get());
+        Assertions.assertEquals(BOOKINGS - CAR_INVENTORY, rejected.get());
+        Assertions.assertEquals(CAR_INVENTORY, car.getInventory());
+        Assertions.assertEquals(CAR_INVENTORY, rentalsOfCar);
+        Assertions.assertEquals(CAR_INVENTORY,
+                carBookedDayRepository.findMaxUnitsBooked(CAR_ID, from, to).orElseThrow());
+        carAvailabilityService.rebuild();
+        Assertions.assertEquals(CAR_INVENTORY,
+                carBookedDayRepository.findMaxUnitsBooked(CAR_ID, from, to).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Fully booked car can still be rented for a period that does not overlap")
+    void createRental_FullyBookedPeriod_ShouldAllowNonOverlappingPeriod() {
+        //Given
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(3);
+        for (int i = 0; i < CAR_INVENTORY; i++) {
+            rentalService.createRental(new RentalRequestDto(from, to, CAR_ID), USER_ID);
+        }
+
+        //When
+        Assertions.assertThrows(CarNotAvailableException.class, () -> rentalService
+                .createRental(new RentalRequestDto(from.plusDays(2), to.plusDays(2), CAR_ID),
+                        USER_ID));
+        rentalService.createRental(new RentalRequestDto(to, to.plusDays(2), CAR_ID), USER_ID);
+
+        //Then
+        Assertions.assertEquals(1, carBookedDayRepository.findMaxUnitsBooked(
+                CAR_ID, to, to.plusDays(2)).orElseThrow());
+        Assertions.assertEquals(CAR_INVENTORY, carBookedDayRepository.findMaxUnitsBooked(
+                CAR_ID, from, to).orElseThrow());
+    }
+}
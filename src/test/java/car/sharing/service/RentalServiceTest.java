@@ -3,13 +3,19 @@ package car.sharing.service;
 import static car.sharing.model.Car.CarFrame.UNIVERSAL;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import car.sharing.dto.rental.RentalRequestDto;
 import car.sharing.dto.rental.RentalResponseDto;
+import car.sharing.dto.rental.RentalReturnResultDto;
+import car.sharing.dto.rental.RentalReturnStatus;
 import car.sharing.dto.rental.RentalSearchParametersDto;
+import car.sharing.exception.CarNotAvailableException;
 import car.sharing.exception.EntityNotFoundException;
 import car.sharing.mapper.RentalMapper;
 import car.sharing.mapper.impl.RentalMapperImpl;
@@ -34,13 +40,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 
 @ExtendWith(MockitoExtension.class)
 public class RentalServiceTest {
     private static final int DEFAULT_CAR_INVENTORY = 100;
-    private static final int CAR_INVENTORY_EXPECT = 99;
     private static final boolean RENTAL_IS_FINISHED = false;
+    private static final Pageable PAGEABLE = PageRequest.of(0, 20);
     @Mock
     private RentalRepository rentalRepository;
     @Mock
@@ -51,6 +60,8 @@ public class RentalServiceTest {
     private CarRepository carRepository;
     @Mock
     private RentalSpecificationBuilder specificationBuilder;
+    @Mock
+    private CarAvailabilityService carAvailabilityService;
     @InjectMocks
     private RentalServiceImpl rentalService;
 
@@ -95,8 +106,7 @@ public class RentalServiceTest {
 
         when(rentalMapper.toModel(requestDto)).thenReturn(rental);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(carRepository.findById(1L)).thenReturn(Optional.of(car));
-        when(carRepository.save(car)).thenReturn(car);
+        when(carRepository.getReferenceById(1L)).thenReturn(car);
         when(rentalRepository.save(rental)).thenReturn(rental);
         when(rentalMapper.toDto(rental)).thenReturn(responseDtoExpected);
 
@@ -105,15 +115,37 @@ public class RentalServiceTest {
 
         // Then
         Assertions.assertEquals(responseDtoExpected, rentalActual);
-        Assertions.assertEquals(car.getInventory(), CAR_INVENTORY_EXPECT);
         verify(rentalMapper, times(1)).toModel(requestDto);
         verify(userRepository, times(1)).findById(1L);
-        verify(carRepository, times(1)).findById(1L);
-        verify(carRepository, times(1)).save(car);
+        verify(carRepository, times(1)).getReferenceById(1L);
         verify(rentalRepository, times(1)).save(rental);
+        verify(carAvailabilityService, times(1)).book(1L, requestDto.rentalDate(),
+                requestDto.returnDate());
         verify(rentalMapper, times(1)).toDto(rental);
     }
 
+    @Test
+    @DisplayName("Can`t rent a car without a free unit for the rental period")
+    public void addRental_CarOutOfInventory_ShouldReturnCarNotAvailableException() {
+        // Given
+        when(rentalMapper.toModel(requestDto)).thenReturn(rental);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        doThrow(new CarNotAvailableException("Car with id: 1 is not available for rent"))
+                .when(carAvailabilityService)
+                .book(1L, requestDto.rentalDate(), requestDto.returnDate());
+
+        // When
+        CarNotAvailableException exception = Assertions.assertThrows(
+                CarNotAvailableException.class,
+                () -> rentalService.createRental(requestDto, 1L)
+        );
+
+        // Then
+        String expected = "Car with id: 1 is not available for rent";
+        Assertions.assertEquals(expected, exception.getMessage());
+        verify(rentalRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Search rentals with valid params")
     public void search_ValidRentalsByParams_ShouldReturnListOfRentalsDto() {
@@ -130,18 +162,20 @@ public class RentalServiceTest {
         RentalResponseDto rentalDto1 = createRentalDto(rental1);
 
         when(specificationBuilder.build(parametersDto)).thenReturn(rentalSpecification);
-        when(rentalRepository.findAll(rentalSpecification)).thenReturn(rentals);
+        when(rentalRepository.findAll(rentalSpecification, PAGEABLE))
+                .thenReturn(new PageImpl<>(rentals));
         when(rentalMapper.toDto(any(Rental.class))).thenReturn(rentalDto, rentalDto1);
 
         List<RentalResponseDto> rentalResponseDtosExpected = List.of(rentalDto, rentalDto1);
 
         //When
-        List<RentalResponseDto> rentalResponseDtosActual = rentalService.search(parametersDto);
+        List<RentalResponseDto> rentalResponseDtosActual = rentalService.search(parametersDto,
+                PAGEABLE);
 
         //Then
         Assertions.assertEquals(rentalResponseDtosActual, rentalResponseDtosExpected);
         verify(specificationBuilder, times(2)).build(parametersDto);
-        verify(rentalRepository, times(1)).findAll(rentalSpecification);
+        verify(rentalRepository, times(1)).findAll(rentalSpecification, PAGEABLE);
         verify(rentalMapper, times(1)).toDto(rental);
         verify(rentalMapper, times(1)).toDto(rental1);
     }
@@ -162,16 +196,18 @@ public class RentalServiceTest {
         RentalResponseDto rentalDto1 = createRentalDto(rental1);
 
         when(specificationBuilder.build(parametersDto)).thenReturn(rentalSpecification);
-        when(rentalRepository.findAll(rentalSpecification)).thenReturn(rentals);
+        when(rentalRepository.findAll(rentalSpecification, PAGEABLE))
+                .thenReturn(new PageImpl<>(rentals));
         when(rentalMapper.toDto(any(Rental.class))).thenReturn(rentalDto, rentalDto1);
 
         //When
-        List<RentalResponseDto> rentalResponseDtosActual = rentalService.search(parametersDto);
+        List<RentalResponseDto> rentalResponseDtosActual = rentalService.search(parametersDto,
+                PAGEABLE);
 
         //Then
         assertFalse(rentalResponseDtosActual.isEmpty());
         verify(specificationBuilder, times(2)).build(parametersDto);
-        verify(rentalRepository, times(1)).findAll(rentalSpecification);
+        verify(rentalRepository, times(1)).findAll(rentalSpecification, PAGEABLE);
         verify(rentalMapper, times(1)).toDto(rental);
         verify(rentalMapper, times(1)).toDto(rental1);
     }
@@ -220,11 +256,9 @@ public class RentalServiceTest {
     public void addActualReturnDate_ValidRental_ShouldReturnRentalResponseDto() {
         //Given
         rental.setActualReturnDate(LocalDate.now().plusDays(10));
-        car.setInventory(CAR_INVENTORY_EXPECT);
         RentalResponseDto rentalDtoExpected = createRentalDto(rental);
 
         when(rentalRepository.findById(1L)).thenReturn(Optional.of(rental));
-        when(carRepository.save(car)).thenReturn(car);
         when(rentalRepository.save(rental)).thenReturn(rental);
         when(rentalMapper.toDto(rental)).thenReturn(rentalDtoExpected);
 
@@ -234,11 +268,32 @@ public class RentalServiceTest {
         //Then
         Assertions.assertEquals(rentalDtoExpected, rentalResponseDtoActual);
         verify(rentalRepository, times(1)).findById(1L);
-        verify(carRepository, times(1)).save(car);
+        verify(carAvailabilityService, times(1)).release(1L, LocalDate.now(),
+                requestDto.returnDate());
         verify(rentalRepository, times(1)).save(rental);
         verify(rentalMapper, times(1)).toDto(rental);
     }
 
+    @Test
+    @DisplayName("Book the overrun days of an overdue rental on return")
+    public void addActualReturnDate_OverdueRental_ShouldExtendBooking() {
+        //Given
+        rental.setRentalDate(LocalDate.now().minusDays(5));
+        rental.setReturnDate(LocalDate.now().minusDays(2));
+
+        when(rentalRepository.findById(1L)).thenReturn(Optional.of(rental));
+        when(rentalRepository.save(rental)).thenReturn(rental);
+
+        //When
+        rentalService.actualReturnDate(1L);
+
+        //Then
+        verify(carAvailabilityService, times(1)).extend(1L, LocalDate.now().minusDays(2),
+                LocalDate.now(), 1);
+        verify(carAvailabilityService, never()).release(any(), any(), any());
+        Assertions.assertEquals(LocalDate.now(), rental.getActualReturnDate());
+    }
+
     @Test
     @DisplayName("Should throw exception when rentals is not active")
     public void addActualReturnDate_InvalidRental_ShouldReturnEntityNotFoundException() {
@@ -260,6 +315,38 @@ public class RentalServiceTest {
         verify(rentalRepository, times(1)).findById(100L);
     }
 
+    @Test
+    @DisplayName("Return several rentals with one release per car and period")
+    public void returnRentals_MixedRentalIds_ShouldReturnResultPerRentalId() {
+        //Given
+        Rental sameCarRental = createRental();
+        sameCarRental.setId(2L);
+        sameCarRental.setRentalDate(rental.getRentalDate());
+        sameCarRental.setActualReturnDate(null);
+        Rental returnedRental = createRental();
+        returnedRental.setId(3L);
+        returnedRental.setActive(false);
+        List<Long> rentalIds = List.of(1L, 2L, 3L, 100L, 1L);
+
+        when(rentalRepository.findAllById(rentalIds))
+                .thenReturn(List.of(rental, sameCarRental, returnedRental));
+
+        //When
+        List<RentalReturnResultDto> results = rentalService.returnRentals(rentalIds);
+
+        //Then
+        Assertions.assertEquals(List.of(RentalReturnStatus.RETURNED,
+                RentalReturnStatus.RETURNED, RentalReturnStatus.ALREADY_RETURNED,
+                RentalReturnStatus.NOT_FOUND, RentalReturnStatus.ALREADY_RETURNED),
+                results.stream().map(RentalReturnResultDto::status).toList());
+        Assertions.assertEquals(LocalDate.now(), results.get(0).rental().actualReturnDate());
+        assertFalse(sameCarRental.isActive());
+        verify(carAvailabilityService, times(1)).release(1L, LocalDate.now(),
+                requestDto.returnDate(), 2);
+        verify(carAvailabilityService, times(1)).release(any(), any(), any(), anyInt());
+        verify(rentalRepository, never()).save(any());
+    }
+
     private Rental createRental() {
         Rental rental = new Rental();
         rental.setId(2L);
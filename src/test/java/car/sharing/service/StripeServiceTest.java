@@ -0,0 +1,241 @@
+package car.sharing.service;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import car.sharing.dto.payment.internal.DescriptionForStripeDto;
+import car.sharing.dto.payment.internal.ProviderSessionDto;
+import car.sharing.exception.PaymentProviderUnavailableException;
+import car.sharing.service.impl.CircuitBreaker;
+import car.sharing.service.impl.StripeService;
+import com.stripe.StripeClient;
+import com.stripe.exception.InvalidRequestException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StripeServiceTest {
+    private static final String SESSIONS_PATH = "/v1/checkout/sessions";
+    private static final String IDEMPOTENCY_KEY = "rental-1-PAYMENT-100000";
+    private static final String SESSION_JSON = "{\"id\":\"cs_test_1\","
+            + "\"object\":\"checkout.session\",\"url\":\"https://checkout.stripe.com/cs_test_1\"}";
+    private static final String EXPIRE_PATH = SESSIONS_PATH + "/cs_test_1/expire";
+    private static final String COMPLETE_SESSION_JSON = "{\"id\":\"cs_test_1\","
+            + "\"object\":\"checkout.session\",\"status\":\"complete\"}";
+    private static final String NOT_OPEN_JSON = "{\"error\":{\"type\":\"invalid_request_error\","
+            + "\"message\":\"Only open Checkout Sessions can be expired\"}}";
+    private static final String ERROR_JSON = "{\"error\":{\"type\":\"api_error\","
+            + "\"message\":\"Stripe is down\"}}";
+    private static final int FAILURE_THRESHOLD = 2;
+    private static final int READ_TIMEOUT_MILLIS = 200;
+    private static final long SLOW_RESPONSE_MILLIS = 1_000;
+
+    private final List<String> idempotencyKeys = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer stripeStub;
+    private ExecutorService executor;
+    private CircuitBreaker circuitBreaker;
+    private StripeService stripeService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stripeStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stripeStub.setExecutor(Executors.newCachedThreadPool());
+        stripeStub.start();
+        StripeClient stripeClient = StripeClient.builder()
+                .setApiKey("sk_test_stub")
+                .setApiBase("http://localhost:" + stripeStub.getAddress().getPort())
+                .setConnectTimeout(READ_TIMEOUT_MILLIS)
+                .setReadTimeout(READ_TIMEOUT_MILLIS)
+                .setMaxNetworkRetries(0)
+                .build();
+        executor = Executors.newFixedThreadPool(2);
+        circuitBreaker = new CircuitBreaker(FAILURE_THRESHOLD, Duration.ofMinutes(1));
+        stripeService = new StripeService(stripeClient, circuitBreaker, executor,
+                "http://localhost/success", "http://localhost/cancel");
+    }
+
+    @AfterEach
+    void tearDown() {
+        stripeStub.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Create a session with the idempotency key of the rental")
+    void createSession_HealthyProvider_ShouldSendIdempotencyKey() {
+        //Given
+        respondWith(200, SESSION_JSON, 0);
+
+        //When
+        ProviderSessionDto session = stripeService.createSession(createDescription(),
+                IDEMPOTENCY_KEY).join();
+
+        //Then
+        Assertions.assertEquals("cs_test_1", session.id());
+        Assertions.assertEquals(List.of(IDEMPOTENCY_KEY), idempotencyKeys);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("Open the circuit after repeated server errors and fail fast")
+    void createSession_ServerErrors_ShouldOpenCircuit() {
+        //Given
+        respondWith(500, ERROR_JSON, 0);
+
+        //When
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertUnavailable();
+        }
+        assertUnavailable();
+
+        //Then
+        Assertions.assertEquals(FAILURE_THRESHOLD, requests.get());
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("Time out slow responses and stop calling the provider")
+    void createSession_SlowProvider_ShouldTimeOutAndOpenCircuit() {
+        //Given
+        respondWith(200, SESSION_JSON, SLOW_RESPONSE_MILLIS);
+
+        //When
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertUnavailable();
+        }
+        long start = System.nanoTime();
+        assertUnavailable();
+        long failFastMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        //Then
+        Assertions.assertEquals(FAILURE_THRESHOLD, requests.get());
+        Assertions.assertTrue(failFastMillis < READ_TIMEOUT_MILLIS,
+                "Open circuit should not wait for the provider: " + failFastMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("Expire an open session so it can no longer be paid")
+    void expireSession_OpenSession_ShouldReturnTrue() {
+        //Given
+        List<String> paths = new CopyOnWriteArrayList<>();
+        stripeStub.createContext(SESSIONS_PATH, exchange -> {
+            paths.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            writeResponse(exchange, 200, SESSION_JSON);
+        });
+
+        //When
+        boolean expired = stripeService.expireSession("cs_test_1").join();
+
+        //Then
+        Assertions.assertTrue(expired);
+        Assertions.assertEquals(List.of("POST " + EXPIRE_PATH), paths);
+    }
+
+    @Test
+    @DisplayName("Report a session that was completed before it could be expired")
+    void expireSession_CompletedSession_ShouldReturnFalse() {
+        //Given
+        stripeStub.createContext(SESSIONS_PATH, exchange -> {
+            if (exchange.getRequestURI().getPath().equals(EXPIRE_PATH)) {
+                writeResponse(exchange, 400, NOT_OPEN_JSON);
+            } else {
+                writeResponse(exchange, 200, COMPLETE_SESSION_JSON);
+            }
+        });
+
+        //When
+        boolean expired = stripeService.expireSession("cs_test_1").join();
+
+        //Then
+        Assertions.assertFalse(expired);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("Release a half-open trial whose session lookup fails outside Stripe")
+    void expireSession_LookupFailsInTrialCall_ShouldLetNextTrialThrough() throws Exception {
+        //Given
+        StripeClient stripeClient = mock(StripeClient.class, RETURNS_DEEP_STUBS);
+        IllegalStateException lookupFailure = new IllegalStateException("Malformed session");
+        when(stripeClient.checkout().sessions().expire("cs_test_1")).thenThrow(
+                new InvalidRequestException("Only open Checkout Sessions can be expired",
+                        null, null, null, 400, null));
+        when(stripeClient.checkout().sessions().retrieve("cs_test_1")).thenThrow(lookupFailure);
+        CircuitBreaker halfOpenBreaker = new CircuitBreaker(1, Duration.ZERO);
+        halfOpenBreaker.onFailure();
+        StripeService service = new StripeService(stripeClient, halfOpenBreaker, executor,
+                "http://localhost/success", "http://localhost/cancel");
+
+        //When
+        CompletionException exception = Assertions.assertThrows(CompletionException.class,
+                () -> service.expireSession("cs_test_1").join());
+
+        //Then
+        Assertions.assertSame(lookupFailure, exception.getCause().getCause());
+        Assertions.assertTrue(halfOpenBreaker.tryAcquirePermission());
+    }
+
+    private void assertUnavailable() {
+        CompletionException exception = Assertions.assertThrows(CompletionException.class,
+                () -> stripeService.createSession(createDescription(),
+                        IDEMPOTENCY_KEY).join());
+        Assertions.assertInstanceOf(PaymentProviderUnavailableException.class,
+                exception.getCause());
+    }
+
+    private void respondWith(int status, String body, long delayMillis) {
+        stripeStub.createContext(SESSIONS_PATH, exchange -> {
+            requests.incrementAndGet();
+            idempotencyKeys.add(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+            sleep(delayMillis);
+            writeResponse(exchange, status, body);
+        });
+    }
+
+    private void writeResponse(HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } catch (IOException e) {
+            // the client has already given up on a slow response
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private DescriptionForStripeDto createDescription() {
+        DescriptionForStripeDto description = new DescriptionForStripeDto();
+        description.setTotalAmount(BigDecimal.valueOf(1000));
+        description.setName("RentalS-ClassMercedes");
+        description.setDescription("This is a session for car rentals payment");
+        return description;
+    }
+}
@@ -152,13 +152,15 @@ public class UserServiceTest {
         UserResponseDto responseDto = new UserResponseDto(user.getId(), user.getEmail(),
                 user.getFirstName(), user.getLastName());
 
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
         when(userMapper.toDto(user)).thenReturn(responseDto);
 
         // When
-        UserResponseDto userInfoExpected = userService.getUserInfo(user);
+        UserResponseDto userInfoExpected = userService.getUserInfo(user.getId());
 
         // Then
         assertEquals(responseDto, userInfoExpected);
+        verify(userRepository, times(1)).findById(user.getId());
         verify(userMapper, times(1)).toDto(user);
     }
 
@@ -0,0 +1,191 @@
+package car.sharing.telegram;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import car.sharing.exception.NotificationException;
+import car.sharing.model.FailedNotification;
+import car.sharing.repository.notification.FailedNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class NotificationDispatcherTest {
+    private static final long FIRST_CHAT_ID = 1L;
+    private static final long SECOND_CHAT_ID = 2L;
+    private static final int MESSAGES_PER_CHAT = 20;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long VERIFY_TIMEOUT_MILLIS = 5_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TelegramBot telegramBot;
+    private FailedNotificationRepository failedNotificationRepository;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        telegramBot = mock(TelegramBot.class);
+        failedNotificationRepository = mock(FailedNotificationRepository.class);
+        dispatcher = createDispatcher(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Deliver notifications of each chat in the order they were sent")
+    void dispatch_ManyMessagesForTwoChats_ShouldKeepPerChatOrder() {
+        //Given
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> delivered.add(invocation.getArgument(1) + ":"
+                + invocation.getArgument(0)))
+                .when(telegramBot).sendMessageToUser(anyString(), anyLong());
+
+        //When
+        for (int i = 0; i < MESSAGES_PER_CHAT; i++) {
+            dispatcher.dispatch(String.valueOf(i), FIRST_CHAT_ID);
+            dispatcher.dispatch(String.valueOf(i), SECOND_CHAT_ID);
+        }
+
+        //Then
+        verify(telegramBot, timeout(VERIFY_TIMEOUT_MILLIS).times(MESSAGES_PER_CHAT * 2))
+                .sendMessageToUser(anyString(), anyLong());
+        List<String> expectedOrder = IntStream.range(0, MESSAGES_PER_CHAT)
+                .mapToObj(String::valueOf)
+                .toList();
+        Assertions.assertEquals(expectedOrder, messagesOf(delivered, FIRST_CHAT_ID));
+        Assertions.assertEquals(expectedOrder, messagesOf(delivered, SECOND_CHAT_ID));
+    }
+
+    @Test
+    @DisplayName("Retry a failed notification with backoff until it is delivered")
+    void dispatch_TransientFailure_ShouldRetryAndDeliver() {
+        //Given
+        doThrow(new NotificationException("Telegram is unavailable"))
+                .doNothing()
+                .when(telegramBot).sendMessageToUser("Payment is successful", FIRST_CHAT_ID);
+
+        //When
+        dispatcher.dispatch("Payment is successful", FIRST_CHAT_ID);
+
+        //Then
+        verify(telegramBot, timeout(VERIFY_TIMEOUT_MILLIS).times(2))
+                .sendMessageToUser("Payment is successful", FIRST_CHAT_ID);
+        Assertions.assertEquals(1, meterRegistry.counter("notifications.retries").count());
+        verify(failedNotificationRepository, times(0)).save(any());
+    }
+
+    @Test
+    @DisplayName("Store a notification in the dead-letter table after the last attempt")
+    void dispatch_PermanentFailure_ShouldStoreDeadLetter() {
+        //Given
+        doThrow(new NotificationException("Telegram is unavailable"))
+                .when(telegramBot).sendMessageToUser(anyString(), anyLong());
+
+        //When
+        dispatcher.dispatch("Payment is canceled", FIRST_CHAT_ID);
+
+        //Then
+        verify(failedNotificationRepository, timeout(VERIFY_TIMEOUT_MILLIS))
+                .save(argThat(failed -> failed.getAttempts() == MAX_ATTEMPTS
+                        && failed.getChatId().equals(FIRST_CHAT_ID)
+                        && failed.getMessage().equals("Payment is canceled")));
+        verify(telegramBot, times(MAX_ATTEMPTS))
+                .sendMessageToUser("Payment is canceled", FIRST_CHAT_ID);
+    }
+
+    @Test
+    @DisplayName("Dead-letter a notification failing with an unchecked error and keep the chat")
+    void dispatch_UncheckedFailure_ShouldDeadLetterAndDeliverNextNotification()
+            throws InterruptedException {
+        //Given
+        doThrow(new IllegalStateException("Unexpected bot state"))
+                .when(telegramBot).sendMessageToUser("Rental is overdue", FIRST_CHAT_ID);
+
+        //When
+        dispatcher.dispatch("Rental is overdue", FIRST_CHAT_ID);
+        dispatcher.dispatch("Payment is successful", FIRST_CHAT_ID);
+
+        //Then
+        verify(telegramBot, timeout(VERIFY_TIMEOUT_MILLIS))
+                .sendMessageToUser("Payment is successful", FIRST_CHAT_ID);
+        verify(failedNotificationRepository, timeout(VERIFY_TIMEOUT_MILLIS))
+                .save(argThat(failed -> failed.getAttempts() == MAX_ATTEMPTS
+                        && failed.getMessage().equals("Rental is overdue")
+                        && failed.getReason().equals("Unexpected bot state")));
+        verify(telegramBot, times(MAX_ATTEMPTS))
+                .sendMessageToUser("Rental is overdue", FIRST_CHAT_ID);
+        Assertions.assertEquals(0, awaitQueueDepth(0));
+    }
+
+    @Test
+    @DisplayName("Never block the caller when the queue is full")
+    void dispatch_QueueIsFull_ShouldDeadLetterWithoutBlocking() throws Exception {
+        //Given
+        dispatcher.shutdown();
+        dispatcher = createDispatcher(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(telegramBot).sendMessageToUser(anyString(), anyLong());
+
+        //When
+        long start = System.nanoTime();
+        dispatcher.dispatch("first", FIRST_CHAT_ID);
+        dispatcher.dispatch("second", FIRST_CHAT_ID);
+        dispatcher.dispatch("third", SECOND_CHAT_ID);
+        long dispatchMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        release.countDown();
+
+        //Then
+        verify(failedNotificationRepository, timeout(VERIFY_TIMEOUT_MILLIS).times(2))
+                .save(any(FailedNotification.class));
+        Assertions.assertTrue(dispatchMillis < 1_000,
+                "Dispatching must not wait for delivery: " + dispatchMillis + " ms");
+    }
+
+    private NotificationDispatcher createDispatcher(int queueCapacity) {
+        doNothing().when(telegramBot).sendMessageToUser(anyString(), anyLong());
+        return new NotificationDispatcher(telegramBot, failedNotificationRepository,
+                meterRegistry, new NotificationDispatcher.Settings(2, queueCapacity,
+                        MAX_ATTEMPTS, Duration.ofMillis(10), Duration.ofMillis(50),
+                        1_000, Duration.ZERO));
+    }
+
+    private double awaitQueueDepth(double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMillis(VERIFY_TIMEOUT_MILLIS).toNanos();
+        double depth = meterRegistry.get("notifications.queue.depth").gauge().value();
+        while (depth != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            depth = meterRegistry.get("notifications.queue.depth").gauge().value();
+        }
+        return depth;
+    }
+
+    private List<String> messagesOf(List<String> delivered, long chatId) {
+        return delivered.stream()
+                .filter(message -> message.startsWith(chatId + ":"))
+                .map(message -> message.substring(message.indexOf(':') + 1))
+                .toList();
+    }
+}
@@ -0,0 +1,122 @@
+package car.sharing.telegram;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import car.sharing.dto.user.UserLoginRequestDto;
+import car.sharing.security.AuthenticationService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+public class TelegramUpdateProcessorTest {
+    private static final int CHATS = 2_000;
+    private static final int UPDATES_PER_LOGIN = 3;
+    private static final int WRONG_PASSWORD_EVERY = 10;
+    private static final long FIRST_CHAT_ID = 100_000L;
+
+    private final Map<Long, List<String>> repliesByChat = new ConcurrentHashMap<>();
+    private final Map<Long, String> loggedInEmails = new ConcurrentHashMap<>();
+    private TelegramUpdateProcessor updateProcessor;
+
+    @BeforeEach
+    void setUp() {
+        AuthenticationService authenticationService = mock(AuthenticationService.class);
+        doAnswer(invocation -> {
+            UserLoginRequestDto requestDto = invocation.getArgument(0);
+            if (!requestDto.password().equals(getPassword(requestDto.email()))) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            loggedInEmails.put(invocation.getArgument(1), requestDto.email());
+            return null;
+        }).when(authenticationService).authenticateWithTelegram(any(), anyLong());
+        TelegramUpdateHandler updateHandler = new TelegramUpdateHandler(authenticationService,
+                Duration.ofMinutes(10), CHATS);
+        updateProcessor = new TelegramUpdateProcessor(updateHandler, 8, CHATS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        updateProcessor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Interleaved logins from thousands of chats never mix up their dialogs")
+    void submit_InterleavedLoginsFromManyChats_ShouldCompleteEveryLogin() throws Exception {
+        //Given
+        CountDownLatch replies = new CountDownLatch(CHATS * UPDATES_PER_LOGIN);
+
+        //When
+        for (int step = 0; step < UPDATES_PER_LOGIN; step++) {
+            for (long chatId = FIRST_CHAT_ID; chatId < FIRST_CHAT_ID + CHATS; chatId++) {
+                updateProcessor.submit(createLoginUpdate(chatId, step),
+                        reply -> recordReply(reply, replies));
+            }
+        }
+
+        //Then
+        Assertions.assertTrue(replies.await(1, TimeUnit.MINUTES), "Not every update was answered");
+        for (long chatId = FIRST_CHAT_ID; chatId < FIRST_CHAT_ID + CHATS; chatId++) {
+            boolean wrongPassword = isWrongPassword(chatId);
+            List<String> expectedReplies = List.of("Enter your email", "Enter your password",
+                    wrongPassword ? "Wrong email or password!" : "Success!");
+            Assertions.assertEquals(expectedReplies, repliesByChat.get(chatId),
+                    "Unexpected dialog in chat " + chatId);
+            Assertions.assertEquals(wrongPassword ? null : getEmail(chatId),
+                    loggedInEmails.get(chatId));
+        }
+    }
+
+    private void recordReply(SendMessage reply, CountDownLatch replies) {
+        repliesByChat.computeIfAbsent(Long.valueOf(reply.getChatId()),
+                id -> new ArrayList<>()).add(reply.getText());
+        replies.countDown();
+    }
+
+    private Update createLoginUpdate(long chatId, int step) {
+        Message message = new Message();
+        message.setChat(new Chat(chatId, "private"));
+        Update update = new Update();
+        if (step == 0) {
+            CallbackQuery callbackQuery = new CallbackQuery();
+            callbackQuery.setData("login");
+            callbackQuery.setMessage(message);
+            update.setCallbackQuery(callbackQuery);
+            return update;
+        }
+        String email = getEmail(chatId);
+        message.setText(step == 1 ? email
+                : isWrongPassword(chatId) ? "wrong" : getPassword(email));
+        update.setMessage(message);
+        return update;
+    }
+
+    private boolean isWrongPassword(long chatId) {
+        return chatId % WRONG_PASSWORD_EVERY == 0;
+    }
+
+    private String getEmail(long chatId) {
+        return "user" + chatId + "@gmail.com";
+    }
+
+    private String getPassword(String email) {
+        return "password-" + email;
+    }
+}
@@ -1 +1,2 @@
+DELETE FROM stripe_events;
 DELETE FROM payments;
\ No newline at end of file
@@ -0,0 +1,48 @@
+SET SESSION cte_max_recursion_depth = 10000;
+
+INSERT INTO cars (id, model, brand, car_frame, inventory, daily_fee, updated_at)
+WITH RECURSIVE seq AS (SELECT 1 AS n UNION ALL SELECT n + 1 FROM seq WHERE n < 1000)
+SELECT n, CONCAT('Model', n), CONCAT('Brand', n % 50),
+       ELT(n % 4 + 1, 'SEDAN', 'SUV', 'HATCHBACK', 'UNIVERSAL'), 10, 20 + n % 100,
+       '2024-01-01'
+FROM seq;
+
+INSERT INTO users (id, email, first_name, last_name, password)
+WITH RECURSIVE seq AS (SELECT 1 AS n UNION ALL SELECT n + 1 FROM seq WHERE n < 1000)
+SELECT 100 + n, CONCAT('user', n, '@mail.com'), 'First', 'Last', 'password'
+FROM seq;
+
+INSERT INTO rentals (id, rental_date, return_date, actual_return_date, car_id, user_id, is_active)
+WITH RECURSIVE seq AS (SELECT 1 AS n UNION ALL SELECT n + 1 FROM seq WHERE n < 10000)
+SELECT n, '2024-01-01' + INTERVAL n % 300 DAY, '2024-01-06' + INTERVAL n % 300 DAY,
+       IF(n % 10 = 0, NULL, '2024-01-06' + INTERVAL n % 300 DAY),
+       1 + n % 1000, 101 + n % 1000, n % 10 = 0
+FROM seq;
+
+INSERT INTO payments (id, status, type, rental_id, session_url, session_id, total_price)
+WITH RECURSIVE seq AS (SELECT 1 AS n UNION ALL SELECT n + 1 FROM seq WHERE n < 10000)
+SELECT n, ELT(n % 4 + 1, 'PENDING', 'PAID', 'CANCELED', 'EXPIRED'), 'PAYMENT', n,
+       CONCAT('http://stripe', n, '.url'), CONCAT('session', n), 100
+FROM seq;
+
+INSERT INTO car_booked_days (car_id, booked_date, units_booked, updated_at)
+WITH RECURSIVE days AS (SELECT 0 AS n UNION ALL SELECT n + 1 FROM days WHERE n < 29)
+SELECT c.id, '2024-12-01' + INTERVAL d.n DAY, c.id % 3, '2024-01-01'
+FROM cars c CROSS JOIN days d;
+
+INSERT INTO overdue_rentals (rental_id, detected_on, amount_due)
+SELECT id, return_date + INTERVAL 1 DAY, 100 FROM rentals WHERE id % 20 = 0;
+
+INSERT INTO scheduled_jobs (name, lease_until, watermark_date, watermark_id)
+VALUES ('overdue-rentals', '2024-01-01', '2024-01-01', 0);
+
+INSERT INTO stripe_events (event_id, event_type, session_id, payment_status, received_at,
+                           processed_at)
+WITH RECURSIVE seq AS (SELECT 1 AS n UNION ALL SELECT n + 1 FROM seq WHERE n < 10000)
+SELECT CONCAT('evt_', n), 'checkout.session.completed', CONCAT('session', n), 'paid',
+       '2024-01-01' + INTERVAL n MINUTE,
+       IF(n % 100 = 0, NULL, '2024-01-01' + INTERVAL n + 1 MINUTE)
+FROM seq;
+
+ANALYZE TABLE cars, users, rentals, payments, car_booked_days, overdue_rentals,
+    scheduled_jobs, stripe_events;
@@ -1 +1,4 @@
+DELETE FROM overdue_rentals;
+DELETE FROM scheduled_jobs;
+DELETE FROM car_booked_days;
 DELETE FROM rentals;
\ No newline at end of file